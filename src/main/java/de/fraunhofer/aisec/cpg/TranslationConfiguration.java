@@ -26,17 +26,24 @@
 
 package de.fraunhofer.aisec.cpg;
 
+import de.fraunhofer.aisec.cpg.frontends.cpp.IncludeFileCache;
 import de.fraunhofer.aisec.cpg.passes.CallResolver;
+import de.fraunhofer.aisec.cpg.passes.DependsOn;
 import de.fraunhofer.aisec.cpg.passes.EvaluationOrderGraphPass;
 import de.fraunhofer.aisec.cpg.passes.FilenameMapper;
+import de.fraunhofer.aisec.cpg.passes.GraphLayer;
 import de.fraunhofer.aisec.cpg.passes.ImportResolver;
 import de.fraunhofer.aisec.cpg.passes.Pass;
 import de.fraunhofer.aisec.cpg.passes.TypeHierarchyResolver;
+import de.fraunhofer.aisec.cpg.passes.TypePropagationPass;
 import de.fraunhofer.aisec.cpg.passes.VariableUsageResolver;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * The configuration for the {@link TranslationManager} holds all information that is used during
@@ -64,13 +71,44 @@ public class TranslationConfiguration {
    * into the CPG. *
    */
   public final String[] includePaths;
+  /**
+   * Should the declarations of C/C++ headers be converted only once and shared by all translation
+   * units that include them. The shared declarations are held by a translation unit of their own
+   * for each header, see {@link
+   * de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration#getSharedDeclarations()}.
+   */
+  public final boolean deduplicateIncludes;
+  /**
+   * Maximum number of characters of include files whose content is cached for the translation, so
+   * that headers included by several files are only read once. A value of 0 disables the cache.
+   */
+  public final long includeCacheSize;
   /** should the code of a node be shown as parameter in the node * */
   public final boolean codeInNodes;
+  /** Should comments of the source code be attached to the nodes they belong to. */
+  public final boolean commentsInNodes;
+  /**
+   * Should the EOG, CFG and DFG edges be moved into a compact, read-only {@link
+   * de.fraunhofer.aisec.cpg.graph.EdgeStore} once all passes have finished.
+   */
+  public final boolean freezeGraph;
   /**
    * Should parser/translation fail on parse/resolving errors (true) or try to continue in a
    * best-effort manner (false).
    */
   final boolean failOnError;
+  /**
+   * Number of worker threads used to run the language frontends. Each source file is parsed by its
+   * own frontend, so files can be parsed concurrently. A value of 1 parses all files sequentially
+   * on the analysis thread.
+   */
+  public final int frontendWorkers;
+  /**
+   * Number of worker threads used to run the registered passes. Passes that do not depend on each
+   * other (see {@link de.fraunhofer.aisec.cpg.passes.DependsOn}) are run concurrently. A value of 1
+   * runs all passes sequentially on the analysis thread.
+   */
+  public final int passWorkers;
   /** Source code files to parse. */
   private List<File> sourceFiles;
 
@@ -84,17 +122,29 @@ public class TranslationConfiguration {
       boolean failOnError,
       boolean loadIncludes,
       String[] includePaths,
+      boolean deduplicateIncludes,
+      long includeCacheSize,
       List<Pass> passes,
-      boolean codeInNodes) {
+      boolean codeInNodes,
+      boolean commentsInNodes,
+      boolean freezeGraph,
+      int frontendWorkers,
+      int passWorkers) {
     this.sourceFiles = sourceFiles;
     this.topLevel = topLevel;
     this.debugParser = debugParser;
     this.failOnError = failOnError;
     this.loadIncludes = loadIncludes;
     this.includePaths = includePaths;
+    this.deduplicateIncludes = deduplicateIncludes;
+    this.includeCacheSize = includeCacheSize;
     this.passes = passes != null ? passes : new ArrayList<>();
     // Make sure to init this AFTER sourceFiles has been set
     this.codeInNodes = codeInNodes;
+    this.commentsInNodes = commentsInNodes;
+    this.freezeGraph = freezeGraph;
+    this.frontendWorkers = frontendWorkers;
+    this.passWorkers = passWorkers;
   }
 
   public static Builder builder() {
@@ -120,8 +170,18 @@ public class TranslationConfiguration {
     private boolean failOnError = false;
     private boolean loadIncludes = false;
     private List<String> includePaths = new ArrayList<>();
+    private boolean deduplicateIncludes = false;
+    private long includeCacheSize = IncludeFileCache.DEFAULT_SIZE;
     private List<Pass> passes = new ArrayList<>();
-    private boolean codeInNodes = true;
+    /** Null, unless set explicitly, which takes precedence over {@link #layers(GraphLayer...)}. */
+    @Nullable private Boolean codeInNodes = null;
+    /** Null, unless set explicitly, which takes precedence over {@link #layers(GraphLayer...)}. */
+    @Nullable private Boolean commentsInNodes = null;
+    /** Whether the AST layer is requested, which enables code and comments in nodes by default. */
+    private boolean astLayer = true;
+    private boolean freezeGraph = false;
+    private int frontendWorkers = 1;
+    private int passWorkers = 1;
 
     public Builder sourceFiles(File... sourceFiles) {
       this.sourceFiles = Arrays.asList(sourceFiles);
@@ -153,26 +213,136 @@ public class TranslationConfiguration {
       return this;
     }
 
+    /**
+     * Converts the declarations of C/C++ headers only once, instead of once for every translation
+     * unit that includes them. Declarations that contain macro expansions are still converted for
+     * every translation unit, as their meaning may depend on the including file.
+     *
+     * @param deduplicateIncludes whether header declarations should be shared
+     */
+    public Builder deduplicateIncludes(boolean deduplicateIncludes) {
+      this.deduplicateIncludes = deduplicateIncludes;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of characters of include files that are cached for the translation.
+     * The least recently used files are evicted first.
+     *
+     * @param includeCacheSize the size of the cache in characters, 0 disables the cache
+     */
+    public Builder includeCacheSize(long includeCacheSize) {
+      this.includeCacheSize = Math.max(0, includeCacheSize);
+      return this;
+    }
+
     public Builder registerPass(Pass pass) {
       this.passes.add(pass);
       return this;
     }
 
     public Builder defaultPasses() {
-      registerPass(new FilenameMapper());
       registerPass(new TypeHierarchyResolver());
+      registerPass(new TypePropagationPass());
       registerPass(new ImportResolver());
       registerPass(new VariableUsageResolver());
       registerPass(new CallResolver()); // creates CG
+      registerPass(new FilenameMapper());
       registerPass(new EvaluationOrderGraphPass()); // creates EOG
       return this;
     }
 
+    /**
+     * Registers only the passes that are needed to produce the given layers of the graph, in the
+     * same order as {@link #defaultPasses()}. Passes of a class that is already registered are not
+     * registered again. Frontend features that only serve the {@link GraphLayer#AST} layer, i.e.
+     * code and comments in nodes, are disabled by default if that layer is not requested. Calls of
+     * {@link #codeInNodes(boolean)} or {@link #commentsInNodes(boolean)} take precedence, no matter
+     * whether they come before or after this call.
+     *
+     * @param layers the layers that the resulting graph should contain
+     */
+    public Builder layers(GraphLayer... layers) {
+      Set<GraphLayer> requested = EnumSet.noneOf(GraphLayer.class);
+      requested.addAll(Arrays.asList(layers));
+      for (Pass pass : GraphLayer.getRequiredPasses(requested)) {
+        if (passes.stream().noneMatch(p -> p.getClass() == pass.getClass())) {
+          registerPass(pass);
+        }
+      }
+      this.astLayer = requested.contains(GraphLayer.AST);
+      return this;
+    }
+
     public Builder codeInNodes(boolean b) {
       this.codeInNodes = b;
       return this;
     }
 
+    public Builder commentsInNodes(boolean b) {
+      this.commentsInNodes = b;
+      return this;
+    }
+
+    /**
+     * Moves the EOG, CFG and DFG edges into a compact store after the last pass. This considerably
+     * reduces the memory footprint of large graphs, but the edges can no longer be modified
+     * afterwards.
+     *
+     * @param freezeGraph whether the graph should be frozen
+     */
+    public Builder freezeGraph(boolean freezeGraph) {
+      this.freezeGraph = freezeGraph;
+      return this;
+    }
+
+    /**
+     * Sets the number of threads used to parse source files in parallel. Translation units are
+     * still added to the result in the order of the source files.
+     *
+     * @param frontendWorkers the number of worker threads, at least 1
+     */
+    public Builder frontendWorkers(int frontendWorkers) {
+      this.frontendWorkers = Math.max(1, frontendWorkers);
+      return this;
+    }
+
+    /**
+     * Sets the number of threads used to run independent passes in parallel.
+     *
+     * @param passWorkers the number of worker threads, at least 1
+     */
+    public Builder passWorkers(int passWorkers) {
+      this.passWorkers = Math.max(1, passWorkers);
+      return this;
+    }
+
+    /**
+     * Registers the passes that complete the results of a registered pass (see {@link
+     * DependsOn#followedBy()}) right after it, unless they are registered already.
+     */
+    private List<Pass> completePasses() {
+      List<Pass> completed = new ArrayList<>();
+      for (Pass pass : passes) {
+        completed.add(pass);
+        DependsOn dependsOn = pass.getClass().getAnnotation(DependsOn.class);
+        if (dependsOn == null) {
+          continue;
+        }
+        for (Class<? extends Pass> following : dependsOn.followedBy()) {
+          if (passes.stream().noneMatch(following::isInstance)
+              && completed.stream().noneMatch(following::isInstance)) {
+            try {
+              completed.add(following.getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+              throw new IllegalStateException("Could not register " + following.getName(), e);
+            }
+          }
+        }
+      }
+      return completed;
+    }
+
     public TranslationConfiguration build() {
       String[] paths = new String[this.includePaths.size()];
       return new TranslationConfiguration(
@@ -182,8 +352,14 @@ public class TranslationConfiguration {
           failOnError,
           loadIncludes,
           includePaths.toArray(paths),
-          passes,
-          codeInNodes);
+          deduplicateIncludes,
+          includeCacheSize,
+          completePasses(),
+          codeInNodes != null ? codeInNodes : astLayer,
+          commentsInNodes != null ? commentsInNodes : astLayer,
+          freezeGraph,
+          frontendWorkers,
+          passWorkers);
     }
   }
 }
@@ -29,16 +29,28 @@ package de.fraunhofer.aisec.cpg;
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontendFactory;
 import de.fraunhofer.aisec.cpg.frontends.TranslationException;
+import de.fraunhofer.aisec.cpg.frontends.cpp.HeaderDeclarationCache;
+import de.fraunhofer.aisec.cpg.graph.EdgeStore;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import de.fraunhofer.aisec.cpg.helpers.Benchmark;
 import de.fraunhofer.aisec.cpg.passes.Pass;
+import de.fraunhofer.aisec.cpg.passes.PassScheduler;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,24 +84,26 @@ public class TranslationManager {
           Benchmark outerBench =
               new Benchmark(TranslationManager.class, "Translation into full graph");
 
-          HashSet<Pass> passesNeedCleanup = new HashSet<>();
+          Set<Pass> passesNeedCleanup = ConcurrentHashMap.newKeySet();
           HashSet<LanguageFrontend> frontendsNeedCleanup = null;
 
+          // all nodes created and modified on this thread belong to this translation
+          TypeManager.setInstance(result.getTypeManager());
           try {
             // Parse Java/C/CPP files
             Benchmark bench = new Benchmark(this.getClass(), "Frontend");
             frontendsNeedCleanup = runFrontends(result, this.config);
+            addSharedHeaders(result);
             bench.stop();
 
             // Apply passes
-            for (Pass pass : config.getRegisteredPasses()) {
-              passesNeedCleanup.add(pass);
-              bench = new Benchmark(pass.getClass(), "Executing Pass");
-              pass.accept(result);
+            new PassScheduler(config.getRegisteredPasses(), config.passWorkers)
+                .run(result, passesNeedCleanup);
+
+            if (config.freezeGraph) {
+              bench = new Benchmark(this.getClass(), "Freezing graph");
+              EdgeStore.freeze(result.getTranslationUnits());
               bench.stop();
-              if (result.isCancelled()) {
-                log.warn("Analysis interrupted, stopping Pass evaluation");
-              }
             }
           } catch (TranslationException ex) {
             throw new CompletionException(ex);
@@ -104,7 +118,8 @@ public class TranslationManager {
               frontendsNeedCleanup.forEach(LanguageFrontend::cleanup);
             }
 
-            TypeManager.getInstance().cleanup();
+            result.getTypeManager().cleanup();
+            TypeManager.clearInstance();
           }
           return result;
         });
@@ -122,6 +137,9 @@ public class TranslationManager {
    * Parses all language files using the respective {@link LanguageFrontend} and creates the initial
    * set of AST nodes.
    *
+   * <p>If {@link TranslationConfiguration#frontendWorkers} is larger than 1, the files are parsed
+   * concurrently, see {@link #runFrontendsParallel(TranslationResult, TranslationConfiguration)}.
+   *
    * @param result the translation result that is being mutated
    * @param config the translation configuration
    * @throws TranslationException if the language front-end runs into an error and <code>failOnError
@@ -132,42 +150,21 @@ public class TranslationManager {
       TranslationResult result, TranslationConfiguration config) throws TranslationException {
 
     List<File> sourceFiles = this.config.getSourceFiles();
+    if (config.frontendWorkers > 1 && sourceFiles.size() > 1) {
+      return runFrontendsParallel(result, config);
+    }
+
     HashSet<LanguageFrontend> usedFrontends = new HashSet<>();
     for (File sourceFile : sourceFiles) {
       log.info("Parsing {}", sourceFile.getAbsolutePath());
       LanguageFrontend frontend = null;
       try {
-        frontend =
-            LanguageFrontendFactory.getFrontend(
-                sourceFile.getName().substring(sourceFile.getName().lastIndexOf('.')).toLowerCase(),
-                config);
-
+        frontend = getFrontend(sourceFile, config, result, usedFrontends);
         if (frontend == null) {
-          log.error("Found no parser frontend for {}", sourceFile.getName());
-
-          if (config.failOnError) {
-            throw new TranslationException("Found no parser frontend for " + sourceFile.getName());
-          }
           continue;
         }
-        for (LanguageFrontend previous : usedFrontends) {
-          if (!previous.getClass().equals(frontend.getClass())) {
-            log.error(
-                "Different frontends are used for multiple files. This will very likely break the following passes.");
-          }
-        }
-        usedFrontends.add(frontend);
-
-        // remember which frontend parsed each file
-        HashMap<String, String> sfToFe =
-            (HashMap<String, String>)
-                result
-                    .getScratch()
-                    .computeIfAbsent(
-                        TranslationResult.SOURCEFILESTOFRONTEND,
-                        x -> new HashMap<String, String>());
-        sfToFe.put(sourceFile.getName(), frontend.getClass().getSimpleName());
 
+        registerFrontend(result, sourceFile, frontend);
         result.getTranslationUnits().add(frontend.parse(sourceFile));
       } catch (TranslationException ex) {
         log.error(
@@ -187,6 +184,156 @@ public class TranslationManager {
     return usedFrontends;
   }
 
+  /**
+   * Parses all language files concurrently, using a pool of {@link
+   * TranslationConfiguration#frontendWorkers} threads. Every file still gets its own {@link
+   * LanguageFrontend}. Translation units are added to the result in the order of the source files,
+   * independent of the order in which the workers finish.
+   *
+   * @param result the translation result that is being mutated
+   * @param config the translation configuration
+   * @throws TranslationException if the language front-end runs into an error and <code>failOnError
+   *     </code> is <code>true</code>.
+   * @return
+   */
+  private HashSet<LanguageFrontend> runFrontendsParallel(
+      TranslationResult result, TranslationConfiguration config) throws TranslationException {
+
+    List<File> sourceFiles = config.getSourceFiles();
+    HashSet<LanguageFrontend> usedFrontends = new HashSet<>();
+    List<LanguageFrontend> frontends = new ArrayList<>();
+    List<Future<TranslationUnitDeclaration>> units = new ArrayList<>();
+
+    TypeManager typeManager = result.getTypeManager();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(config.frontendWorkers, sourceFiles.size()));
+    try {
+      for (File sourceFile : sourceFiles) {
+        LanguageFrontend frontend = getFrontend(sourceFile, config, result, usedFrontends);
+        frontends.add(frontend);
+        if (frontend == null) {
+          units.add(null);
+          continue;
+        }
+
+        registerFrontend(result, sourceFile, frontend);
+        units.add(
+            executor.submit(
+                () -> {
+                  log.info("Parsing {}", sourceFile.getAbsolutePath());
+                  TypeManager.setInstance(typeManager);
+                  try {
+                    return frontend.parse(sourceFile);
+                  } finally {
+                    typeManager.cleanup();
+                    TypeManager.clearInstance();
+                  }
+                }));
+      }
+
+      LanguageFrontend lastFrontend = null;
+      for (int i = 0; i < sourceFiles.size(); i++) {
+        Future<TranslationUnitDeclaration> unit = units.get(i);
+        if (unit == null) {
+          continue;
+        }
+        lastFrontend = frontends.get(i);
+
+        try {
+          result.getTranslationUnits().add(unit.get());
+        } catch (ExecutionException ex) {
+          if (!(ex.getCause() instanceof TranslationException)) {
+            throw new CompletionException(ex.getCause());
+          }
+          log.error(
+              "An error occurred during parsing of {}: {}",
+              sourceFiles.get(i).getName(),
+              ex.getCause().getMessage());
+
+          if (config.failOnError) {
+            throw (TranslationException) ex.getCause();
+          }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new TranslationException(ex);
+        }
+      }
+
+      // mirror the sequential case: the passes and the type manager of the analysis thread see the
+      // frontend of the last file
+      typeManager.setLanguageFrontend(lastFrontend);
+      for (Pass pass : config.getRegisteredPasses()) {
+        pass.setLang(lastFrontend);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return usedFrontends;
+  }
+
+  /**
+   * Creates the {@link LanguageFrontend} for a single source file and adds it to the set of used
+   * frontends.
+   *
+   * @return the frontend, or <code>null</code> if no frontend is available for the file
+   * @throws TranslationException if no frontend is available and <code>failOnError</code> is <code>
+   *     true</code>.
+   */
+  @Nullable
+  private LanguageFrontend getFrontend(
+      File sourceFile,
+      TranslationConfiguration config,
+      TranslationResult result,
+      Set<LanguageFrontend> usedFrontends)
+      throws TranslationException {
+    LanguageFrontend frontend =
+        LanguageFrontendFactory.getFrontend(
+            sourceFile.getName().substring(sourceFile.getName().lastIndexOf('.')).toLowerCase(),
+            config,
+            result);
+
+    if (frontend == null) {
+      log.error("Found no parser frontend for {}", sourceFile.getName());
+
+      if (config.failOnError) {
+        throw new TranslationException("Found no parser frontend for " + sourceFile.getName());
+      }
+      return null;
+    }
+    for (LanguageFrontend previous : usedFrontends) {
+      if (!previous.getClass().equals(frontend.getClass())) {
+        log.error(
+            "Different frontends are used for multiple files. This will very likely break the following passes.");
+      }
+    }
+    usedFrontends.add(frontend);
+    return frontend;
+  }
+
+  /**
+   * Adds the translation units of the headers whose declarations are shared by the C/C++ frontends,
+   * if includes are deduplicated (see {@link TranslationConfiguration#deduplicateIncludes}).
+   */
+  private void addSharedHeaders(TranslationResult result) {
+    HeaderDeclarationCache headers =
+        (HeaderDeclarationCache) result.getScratch().get(HeaderDeclarationCache.class.getName());
+    if (headers != null) {
+      result.getTranslationUnits().addAll(headers.getHeaders());
+    }
+  }
+
+  /** Remembers which frontend parsed each file. */
+  private void registerFrontend(
+      TranslationResult result, File sourceFile, LanguageFrontend frontend) {
+    HashMap<String, String> sfToFe =
+        (HashMap<String, String>)
+            result
+                .getScratch()
+                .computeIfAbsent(
+                    TranslationResult.SOURCEFILESTOFRONTEND, x -> new HashMap<String, String>());
+    sfToFe.put(sourceFile.getName(), frontend.getClass().getSimpleName());
+  }
+
   /**
    * Returns the current (immutable) configuration of this TranslationManager.
    *
@@ -26,11 +26,13 @@
 
 package de.fraunhofer.aisec.cpg;
 
+import de.fraunhofer.aisec.cpg.graph.DeclarationIndex;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
-import java.util.ArrayList;
+import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The global (intermediate) result of the translation. A {@link
@@ -40,12 +42,21 @@ import java.util.Map;
 public class TranslationResult {
   public static final String SOURCEFILESTOFRONTEND = "sourceFilesToFrontend";
   private final TranslationManager translationManager;
-  /** Entry points to the CPG: "TranslationUnits" refer to source files. */
-  private List<TranslationUnitDeclaration> translationUnits = new ArrayList<>();
+  /**
+   * Entry points to the CPG: "TranslationUnits" refer to source files. Passes running in parallel
+   * may add units while others iterate over them, see {@link DeclarationIndex#getOrCreateStub}.
+   */
+  private List<TranslationUnitDeclaration> translationUnits = new CopyOnWriteArrayList<>();
 
   /** A free-for-use HashMap where passes can store whatever they want. */
   private Map<String, Object> scratch = new HashMap<>();
 
+  /** The type manager of this translation. */
+  private final TypeManager typeManager = new TypeManager();
+
+  /** The declaration index of this translation, built on first use. */
+  private DeclarationIndex declarationIndex;
+
   public TranslationResult(TranslationManager translationManager) {
     this.translationManager = translationManager;
   }
@@ -54,6 +65,26 @@ public class TranslationResult {
     return translationManager.isCancelled();
   }
 
+  /**
+   * The type manager that answers type queries for the nodes of this translation. It is bound to
+   * all threads working on the translation, see {@link TypeManager#getInstance()}.
+   */
+  public TypeManager getTypeManager() {
+    return typeManager;
+  }
+
+  /**
+   * The index of the records, enums and functions of this translation, which is shared by all
+   * passes. It is built from the translation units when it is first requested, so it must not be
+   * requested before all frontends have finished.
+   */
+  public synchronized DeclarationIndex getDeclarationIndex() {
+    if (declarationIndex == null) {
+      declarationIndex = new DeclarationIndex(this);
+    }
+    return declarationIndex;
+  }
+
   /** List of translation units. */
   public List<TranslationUnitDeclaration> getTranslationUnits() {
     return this.translationUnits;
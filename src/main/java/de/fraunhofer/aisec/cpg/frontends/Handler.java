@@ -46,6 +46,13 @@ public abstract class Handler<S, T, L extends LanguageFrontend> {
   protected static final Logger log = LoggerFactory.getLogger(Handler.class);
 
   protected final HashMap<Class<? extends T>, HandlerInterface<S, T>> map = new HashMap<>();
+  /**
+   * The handler resolved for each concrete class of raw nodes, see {@link #resolveHandler(Class)}.
+   * Contains null if there is no handler for a class.
+   */
+  private final HashMap<Class<?>, HandlerInterface<S, T>> resolved = new HashMap<>();
+  /** Whether a file is within one of the include paths, by file name. */
+  private final HashMap<String, Boolean> includeFiles = new HashMap<>();
   private final Supplier<S> configConstructor;
   protected L lang;
   private Class<S> typeOfT =
@@ -78,33 +85,25 @@ public abstract class Handler<S, T, L extends LanguageFrontend> {
     // If we do not want to load includes into the CPG and the current fileLocation is an include
     // file ->
     if (!this.lang.config.loadIncludes && ctx instanceof ASTNode) {
-      ASTNode astNode = (ASTNode) ctx;
-      for (String inclPath : this.lang.config.includePaths) {
-        if (astNode.getContainingFilename().startsWith(inclPath)) {
-          log.debug("Skip parsing include file" + astNode.getContainingFilename());
-          return null;
-        }
+      String file = ((ASTNode) ctx).getContainingFilename();
+      if (includeFiles.computeIfAbsent(file, this::isIncludeFile)) {
+        log.debug("Skip parsing include file {}", file);
+        return null;
       }
     }
 
-    Class toHandle = ctx.getClass();
-    HandlerInterface<S, T> handler = map.get(toHandle);
-    while (handler == null) {
-      toHandle = toHandle.getSuperclass();
-      handler = map.get(toHandle);
-      if (handler != null
-          &&
-          // always ok to handle as generic literal expr
-          !ctx.getClass().getSimpleName().contains("LiteralExpr")) {
-        log.info(
-            "No handler for type {}, resolving for its superclass {}.", ctx.getClass(), toHandle);
-      }
-      if (toHandle == typeOfT || !typeOfT.isAssignableFrom(toHandle)) break;
+    Class<?> type = ctx.getClass();
+    HandlerInterface<S, T> handler = resolved.get(type);
+    if (handler == null && !resolved.containsKey(type)) {
+      handler = resolveHandler(type);
+      resolved.put(type, handler);
     }
     if (handler != null) {
       S s = handler.handle(ctx);
       lang.setCodeAndRegion(s, ctx);
-      lang.setComment(s, ctx);
+      if (lang.config.commentsInNodes) {
+        lang.setComment(s, ctx);
+      }
       ret = s;
     } else {
       log.error("Parsing of type {} is not supported (yet)", ctx.getClass());
@@ -114,4 +113,34 @@ public abstract class Handler<S, T, L extends LanguageFrontend> {
     lang.process(ctx, ret);
     return ret;
   }
+
+  /**
+   * Searches the handler for the most specific superclass of a class of raw nodes. The result only
+   * depends on the class, so it is resolved once per class.
+   */
+  private HandlerInterface<S, T> resolveHandler(Class<?> type) {
+    Class toHandle = type;
+    HandlerInterface<S, T> handler = map.get(toHandle);
+    while (handler == null) {
+      toHandle = toHandle.getSuperclass();
+      handler = map.get(toHandle);
+      if (handler != null
+          &&
+          // always ok to handle as generic literal expr
+          !type.getSimpleName().contains("LiteralExpr")) {
+        log.info("No handler for type {}, resolving for its superclass {}.", type, toHandle);
+      }
+      if (toHandle == typeOfT || !typeOfT.isAssignableFrom(toHandle)) break;
+    }
+    return handler;
+  }
+
+  private boolean isIncludeFile(String file) {
+    for (String inclPath : this.lang.config.includePaths) {
+      if (file.startsWith(inclPath)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
@@ -30,12 +30,14 @@ import de.fraunhofer.aisec.cpg.TranslationConfiguration;
 import de.fraunhofer.aisec.cpg.graph.Node;
 import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Region;
+import de.fraunhofer.aisec.cpg.graph.SourceCode;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.passes.scopes.ScopeManager;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
@@ -57,12 +59,24 @@ public abstract class LanguageFrontend {
    * node they are saved under get an entry in processedMapping. THis combination allows to keep the
    * information on which AST-Node build which CPG-Node and operate with these associations once
    * they exist, important to resolve connections between labels and label usages.
+   *
+   * <p>AST nodes are compared by identity, as e.g. JavaParser nodes compute their hash code from
+   * their whole subtree.
    */
-  protected Map<Object, BiConsumer<Object, Object>> objectListeners = new HashMap<>();
+  protected Map<Object, BiConsumer<Object, Object>> objectListeners = new IdentityHashMap<>();
+
+  /** Predicate based listeners, indexed by the class of the processed objects they apply to. */
+  protected Map<Class<?>, Map<BiPredicate<Object, Object>, BiConsumer<Object, Object>>>
+      predicateListeners = new HashMap<>();
 
-  protected Map<BiPredicate<Object, Object>, BiConsumer<Object, Object>> predicateListeners =
-      new HashMap<>();
-  protected Map<Object, Object> processedMapping = new HashMap<>();
+  protected Map<Object, Object> processedMapping = new IdentityHashMap<>();
+  /**
+   * The processed objects, indexed by the class of the object they were processed to. Objects that
+   * were processed to null are indexed under {@link Object}.
+   */
+  private Map<Class<?>, List<Object>> processedByType = new HashMap<>();
+  /** The source code of the file that is currently parsed, shared by the code of its nodes. */
+  @Nullable protected SourceCode sourceCode;
   private String namespaceDelimiter;
 
   /* Cache functions. */
@@ -77,7 +91,14 @@ public abstract class LanguageFrontend {
   }
 
   public void process(Object from, Object to) {
-    processedMapping.put(from, to);
+    boolean processedBefore = processedMapping.containsKey(from);
+    Object previous = processedMapping.put(from, to);
+    if (!processedBefore || classOf(previous) != classOf(to)) {
+      if (processedBefore) {
+        processedByType.get(classOf(previous)).removeIf(o -> o == from);
+      }
+      processedByType.computeIfAbsent(classOf(to), c -> new ArrayList<>()).add(from);
+    }
     BiConsumer<Object, Object> listener = objectListeners.get(from);
     if (listener != null) {
       listener.accept(from, to);
@@ -85,16 +106,26 @@ public abstract class LanguageFrontend {
       // listener, e.g. refinement.
       objectListeners.remove(from);
     }
-    // Iterate over existing predicate based listeners, if the predicate matches the
-    // listener/handler is executed on the new object.
-    for (Map.Entry<BiPredicate<Object, Object>, BiConsumer<Object, Object>> pListener :
-        predicateListeners.entrySet())
-      if (pListener.getKey().test(from, to)) {
-        pListener.getValue().accept(from, to);
-        // Delete line if Node should be processed multiple times and should again invoke the
-        // listener, e.g. refinement.
-        predicateListeners.remove(pListener.getKey());
+    // Iterate over existing predicate based listeners of the class of the new object or one of its
+    // superclasses, if the predicate matches the listener/handler is executed on the new object.
+    if (predicateListeners.isEmpty()) {
+      return;
+    }
+    for (Class<?> type = classOf(to); type != null; type = type.getSuperclass()) {
+      Map<BiPredicate<Object, Object>, BiConsumer<Object, Object>> listeners =
+          predicateListeners.get(type);
+      if (listeners == null) {
+        continue;
       }
+      for (Map.Entry<BiPredicate<Object, Object>, BiConsumer<Object, Object>> pListener :
+          new ArrayList<>(listeners.entrySet()))
+        if (pListener.getKey().test(from, to)) {
+          pListener.getValue().accept(from, to);
+          // Delete line if Node should be processed multiple times and should again invoke the
+          // listener, e.g. refinement.
+          listeners.remove(pListener.getKey());
+        }
+    }
   }
 
   public void registerObjectListener(Object from, BiConsumer<Object, Object> biConsumer) {
@@ -104,19 +135,47 @@ public abstract class LanguageFrontend {
 
   public void registerPredicateListener(
       BiPredicate<Object, Object> predicate, BiConsumer<Object, Object> biConsumer) {
-    List<Map.Entry> matchingEntries = new ArrayList<>();
-    for (Map.Entry mapping : processedMapping.entrySet())
-      if (predicate.test(mapping.getKey(), mapping.getValue())) matchingEntries.add(mapping);
+    registerPredicateListener(Object.class, predicate, biConsumer);
+  }
+
+  /**
+   * Registers a listener that is executed for the objects that match the predicate and were
+   * processed to an instance of the given class. Only those objects are tested, so listeners
+   * should be registered for the most specific class possible.
+   *
+   * @param type the class of the objects the listener applies to, interfaces are not supported
+   * @param predicate the predicate to match the original and the processed object
+   * @param biConsumer the listener
+   */
+  public void registerPredicateListener(
+      Class<?> type,
+      BiPredicate<Object, Object> predicate,
+      BiConsumer<Object, Object> biConsumer) {
+    List<Object> matchingEntries = new ArrayList<>();
+    for (Map.Entry<Class<?>, List<Object>> processed : processedByType.entrySet()) {
+      if (!type.isAssignableFrom(processed.getKey())) {
+        continue;
+      }
+      for (Object from : processed.getValue()) {
+        if (predicate.test(from, processedMapping.get(from))) {
+          matchingEntries.add(from);
+        }
+      }
+    }
 
-    if (!matchingEntries.isEmpty())
-      for (Map.Entry match : matchingEntries) biConsumer.accept(match.getKey(), match.getValue());
-    predicateListeners.put(predicate, biConsumer);
+    for (Object match : matchingEntries) biConsumer.accept(match, processedMapping.get(match));
+    predicateListeners.computeIfAbsent(type, t -> new HashMap<>()).put(predicate, biConsumer);
+  }
+
+  private static Class<?> classOf(@Nullable Object object) {
+    return object == null ? Object.class : object.getClass();
   }
 
   public void clearProcessed() {
     this.objectListeners.clear();
     this.predicateListeners.clear();
     this.processedMapping.clear();
+    this.processedByType.clear();
   }
 
   public List<TranslationUnitDeclaration> parseAll() throws TranslationException {
@@ -151,10 +210,41 @@ public abstract class LanguageFrontend {
   @NonNull
   public abstract <T> Region getRegionFromRawNode(T astNode);
 
+  /**
+   * Returns the code of the ast node as it is stored in the CPG node. Frontends that know the
+   * {@link #sourceCode} of the current file should return a {@link SourceCode.Snippet} of it
+   * instead of copying the code, which is what {@link #getCodeFromRawNode(Object)} does.
+   */
+  protected <T> CharSequence getCodeSnippetFromRawNode(T astNode) {
+    return getCodeFromRawNode(astNode);
+  }
+
+  @Nullable
+  public SourceCode getSourceCode() {
+    return sourceCode;
+  }
+
+  /**
+   * Returns the source code of the file a node was created from. This is the source of its code
+   * snippet, or the {@link #sourceCode} of the current file if the node has no snippet (yet), since
+   * frontends usually only create nodes of the current file.
+   *
+   * @param node the node
+   * @return the source code, or null if it is not known
+   */
+  @Nullable
+  protected SourceCode getSourceCode(Node node) {
+    CharSequence code = node.getCodeSequence();
+    if (code instanceof SourceCode.Snippet) {
+      return ((SourceCode.Snippet) code).getSource();
+    }
+    return sourceCode;
+  }
+
   public <N, S> N setCodeAndRegion(N cpgNode, S astNode) {
     if (cpgNode instanceof de.fraunhofer.aisec.cpg.graph.Node) {
       if (config.codeInNodes) {
-        ((de.fraunhofer.aisec.cpg.graph.Node) cpgNode).setCode(getCodeFromRawNode(astNode));
+        ((de.fraunhofer.aisec.cpg.graph.Node) cpgNode).setCode(getCodeSnippetFromRawNode(astNode));
       }
       ((de.fraunhofer.aisec.cpg.graph.Node) cpgNode).setRegion(getRegionFromRawNode(astNode));
     }
@@ -180,6 +270,8 @@ public abstract class LanguageFrontend {
 
   /**
    * Returns the code represented by the subregion extracted from the parent node and its region.
+   * If the source code of the file of the node is known (see {@link #getSourceCode(Node)}), the
+   * subregion is looked up in its line index instead.
    *
    * @param node - The parent node of the subregion
    * @param nodeRegion - region needs to be precomputed.
@@ -188,6 +280,16 @@ public abstract class LanguageFrontend {
    */
   public String getCodeOfSubregion(
       de.fraunhofer.aisec.cpg.graph.Node node, Region nodeRegion, Region subRegion) {
+    SourceCode source = getSourceCode(node);
+    if (source != null) {
+      int start = source.getOffset(subRegion.getStartLine(), subRegion.getStartColumn());
+      int end = source.getOffset(subRegion.getEndLine(), subRegion.getEndColumn());
+      CharSequence snippet = start < 0 || end < 0 ? null : source.getSnippet(start, end);
+      if (snippet != null) {
+        return snippet.toString();
+      }
+    }
+
     String code = node.toString();
     String nlType = getNewLineType(node);
     int start;
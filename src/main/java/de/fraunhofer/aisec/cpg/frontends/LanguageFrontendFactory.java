@@ -27,8 +27,12 @@
 package de.fraunhofer.aisec.cpg.frontends;
 
 import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.TranslationResult;
 import de.fraunhofer.aisec.cpg.frontends.cpp.CXXLanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.cpp.HeaderDeclarationCache;
+import de.fraunhofer.aisec.cpg.frontends.cpp.IncludeFileCache;
 import de.fraunhofer.aisec.cpg.frontends.java.JavaLanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaTypeSolverCache;
 import java.util.List;
 
 public class LanguageFrontendFactory {
@@ -49,4 +53,45 @@ public class LanguageFrontendFactory {
       return null;
     }
   }
+
+  /**
+   * Returns a frontend for a file of the given translation. Frontends of the same translation share
+   * expensive state, e.g. the type solvers of the {@link JavaLanguageFrontend} or the header
+   * declarations of the {@link CXXLanguageFrontend}.
+   */
+  public static LanguageFrontend getFrontend(
+      String fileType, TranslationConfiguration config, TranslationResult result) {
+
+    if (JAVA_EXTENSIONS.contains(fileType)) {
+      JavaTypeSolverCache typeSolvers =
+          (JavaTypeSolverCache)
+              result
+                  .getScratch()
+                  .computeIfAbsent(
+                      JavaTypeSolverCache.class.getName(), x -> new JavaTypeSolverCache(config));
+      return new JavaLanguageFrontend(config, typeSolvers);
+    } else if (CXX_EXTENSIONS.contains(fileType)) {
+      HeaderDeclarationCache headers = null;
+      if (config.deduplicateIncludes) {
+        headers =
+            (HeaderDeclarationCache)
+                result
+                    .getScratch()
+                    .computeIfAbsent(
+                        HeaderDeclarationCache.class.getName(), x -> new HeaderDeclarationCache());
+      }
+      IncludeFileCache includeFiles = null;
+      if (config.includeCacheSize > 0) {
+        includeFiles =
+            (IncludeFileCache)
+                result
+                    .getScratch()
+                    .computeIfAbsent(
+                        IncludeFileCache.class.getName(),
+                        x -> new IncludeFileCache(config.includeCacheSize));
+      }
+      return new CXXLanguageFrontend(config, headers, includeFiles);
+    }
+    return getFrontend(fileType, config);
+  }
 }
@@ -33,14 +33,20 @@ import de.fraunhofer.aisec.cpg.graph.Declaration;
 import de.fraunhofer.aisec.cpg.graph.DeclaredReferenceExpression;
 import de.fraunhofer.aisec.cpg.graph.Expression;
 import de.fraunhofer.aisec.cpg.graph.Region;
+import de.fraunhofer.aisec.cpg.graph.SourceCode;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import de.fraunhofer.aisec.cpg.graph.ValueDeclaration;
 import de.fraunhofer.aisec.cpg.helpers.Benchmark;
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.Map;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.eclipse.cdt.core.dom.ast.IASTComment;
 import org.eclipse.cdt.core.dom.ast.IASTExpression;
 import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
@@ -59,7 +65,6 @@ import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTIdExpression;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTTranslationUnit;
 import org.eclipse.cdt.internal.core.parser.IMacroDictionary;
 import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
-import org.eclipse.cdt.internal.core.parser.scanner.CharArray;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.core.runtime.CoreException;
@@ -75,27 +80,20 @@ import org.slf4j.LoggerFactory;
 public class CXXLanguageFrontend extends LanguageFrontend {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CXXLanguageFrontend.class);
-  private static final IncludeFileContentProvider INCLUDE_FILE_PROVIDER =
-      new InternalFileContentProvider() {
-        private InternalFileContent getContentUncached(String path) {
-          if (!getInclusionExists(path)) {
-            LOGGER.debug("Include file not found: {}", path);
-            return null;
-          }
-          LOGGER.debug("Loading include file {}", path);
-          FileContent content = FileContent.createForExternalFileLocation(path);
-          return (InternalFileContent) content;
-        }
-
+  /** Field of a file location that holds its location context, see {@link #readSourceCode}. */
+  private static final ClassValue<Field> LOCATION_CTX =
+      new ClassValue<>() {
         @Override
-        public InternalFileContent getContentForInclusion(
-            String path, IMacroDictionary macroDictionary) {
-          return getContentUncached(path);
+        protected Field computeValue(Class<?> type) {
+          return getField(type, "fLocationCtx");
         }
-
+      };
+  /** Field of a location context that holds the source of its file. */
+  private static final ClassValue<Field> SOURCE =
+      new ClassValue<>() {
         @Override
-        public InternalFileContent getContentForInclusion(IIndexFileLocation ifl, String astPath) {
-          return getContentUncached(astPath);
+        protected Field computeValue(Class<?> type) {
+          return getField(type, "fSource");
         }
       };
   private DeclarationHandler declarationHandler = new DeclarationHandler(this);
@@ -108,39 +106,39 @@ public class CXXLanguageFrontend extends LanguageFrontend {
   private StatementHandler statementHandler = new StatementHandler(this);
   private HashMap<IBinding, Declaration> cachedDeclarations = new HashMap<>();
   private HashMap<Integer, String> comments = new HashMap<>();
+  /** Source code of included files, by file name, unless it is shared via {@link #includeFiles}. */
+  private Map<String, SourceCode> includedSources = new HashMap<>();
+  /** Declarations of headers shared with other frontends, if includes are deduplicated. */
+  @Nullable private final HeaderDeclarationCache headerDeclarations;
+  /** Content of include files, shared with other frontends, or null if it is not cached. */
+  @Nullable private IncludeFileCache includeFiles;
 
   public CXXLanguageFrontend(TranslationConfiguration config) {
-    super(config, "::");
+    this(config, null);
+  }
+
+  public CXXLanguageFrontend(
+      TranslationConfiguration config, @Nullable HeaderDeclarationCache headerDeclarations) {
+    this(
+        config,
+        headerDeclarations,
+        config.includeCacheSize > 0 ? new IncludeFileCache(config.includeCacheSize) : null);
   }
 
   /**
-   * Searches in posPrefix to the left until first occurrence of line break and returns the number
-   * of characters.
-   *
-   * <p>This corresponds to the column number of "end" within "posPrefix".
-   *
-   * @param posPrefix - the positional prefix, which is the string before the column and contains
-   *     the column defining newline.
+   * Creates a frontend that may share the declarations and the content of include files with the
+   * frontends of other files of the same translation.
    */
-  private static int getEndColumnIndex(AbstractCharArray posPrefix, int end) {
-    int column = 1;
-
-    // In case the current element goes until EOF, we need to back up "end" by one.
-    try {
-      if ((end - 1) >= posPrefix.getLength() || posPrefix.get(end - 1) == '\n') {
-        end = Math.min(end - 1, posPrefix.getLength() - 1);
-      }
-    } catch (ArrayIndexOutOfBoundsException e) {
-      log.error("could not update end ", e);
-    }
-    for (int i = end - 1; i > 1; i--) {
-      if (posPrefix.get(i) == '\n') {
-        break;
-      }
-      column++;
+  public CXXLanguageFrontend(
+      TranslationConfiguration config,
+      @Nullable HeaderDeclarationCache headerDeclarations,
+      @Nullable IncludeFileCache includeFiles) {
+    super(config, "::");
+    this.headerDeclarations = headerDeclarations;
+    this.includeFiles = includeFiles;
+    if (includeFiles != null) {
+      includeFiles.acquire();
     }
-
-    return column;
   }
 
   private static void explore(IASTNode node, int indent) {
@@ -178,7 +176,7 @@ public class CXXLanguageFrontend extends LanguageFrontend {
 
     IncludeFileContentProvider includeProvider;
     if (config.loadIncludes) {
-      includeProvider = INCLUDE_FILE_PROVIDER;
+      includeProvider = new IncludeFileProvider(includeFiles);
     } else {
       includeProvider = IncludeFileContentProvider.getEmptyFilesProvider();
     }
@@ -198,8 +196,12 @@ public class CXXLanguageFrontend extends LanguageFrontend {
         explore(translationUnit, 0);
       }
 
-      for (IASTComment c : translationUnit.getComments()) {
-        comments.put(c.getFileLocation().getStartingLineNumber(), c.getRawSignature());
+      sourceCode = new SourceCode(translationUnit.getFilePath(), translationUnit.getRawSignature());
+
+      if (config.commentsInNodes) {
+        for (IASTComment c : translationUnit.getComments()) {
+          comments.put(c.getFileLocation().getStartingLineNumber(), c.getRawSignature());
+        }
       }
 
       TranslationUnitDeclaration translationUnitDeclaration =
@@ -220,71 +222,112 @@ public class CXXLanguageFrontend extends LanguageFrontend {
     return null;
   }
 
+  @Override
+  protected <T> CharSequence getCodeSnippetFromRawNode(T astNode) {
+    if (astNode instanceof ASTNode) {
+      // the raw signature is the unpreprocessed code at the file location of the node
+      IASTFileLocation location = ((ASTNode) astNode).getFileLocation();
+      if (location != null) {
+        int start = location.getNodeOffset();
+        CharSequence snippet =
+            getFileSourceCode(location).getSnippet(start, start + location.getNodeLength());
+        if (snippet != null) {
+          return snippet;
+        }
+      }
+    }
+    return getCodeFromRawNode(astNode);
+  }
+
   @Override
   @NonNull
-  @SuppressWarnings("ConstantConditions")
   public <T> Region getRegionFromRawNode(T astNode) {
     if (astNode instanceof ASTNode) {
       ASTNode node = (ASTNode) astNode;
       IASTFileLocation fLocation = node.getFileLocation();
-      ASTNode parent = (ASTNode) node.getParent();
 
       if (fLocation != null) {
-        /* Yes, seriously. getRawSignature() is CPU and heap-costly, because it does an arraycopy. If parent is the whole TranslationUnit and we are doing this repeatedly, we will end up with OOM and waste time.
-         * We thus do a shortcut an directly access the field containing the source code of a node as a CharArray.
-         * This may break in future versions of CDT parser, when fields are renamed (which is unlikely). In this case, we will go the standard route.
-         * Note, the only reason we are doing this is to compute the start and end columns of the current node.
-         */
-        AbstractCharArray parentRawSig = new CharArray("");
-        try {
-          IASTFileLocation loc = parent.getFileLocation();
-          Field fLoc = getField(loc.getClass(), "fLocationCtx");
-          fLoc.setAccessible(true);
-          Object locCtx = fLoc.get(loc);
-
-          Field fSource = getField(locCtx.getClass(), "fSource");
-          fSource.setAccessible(true);
-          parentRawSig = (AbstractCharArray) fSource.get(locCtx);
-        } catch (ReflectiveOperationException | ClassCastException | NullPointerException e) {
-          LOGGER.warn(
-              "Reflective retrieval of AST node source failed. Must go the official but costly route via getRawSignature(). Watch your heap!");
-          while (parent.getParent() != null) {
-            parent = (ASTNode) parent.getParent();
-          }
-          parentRawSig = new CharArray(parent.getRawSignature());
+        SourceCode source = getFileSourceCode(fLocation);
+        int start = Math.min(fLocation.getNodeOffset(), source.length());
+        int end = Math.min(start + fLocation.getNodeLength(), source.length());
+        // a trailing line break does not belong to the last line of the node
+        if (end > start && source.charAt(end - 1) == '\n') {
+          end--;
         }
 
-        // Get start column by stepping backwards from begin of node to first occurrence of '\n'
-        int startColumn = 1;
-        for (int i = node.getFileLocation().getNodeOffset() - 1; i > 1; i--) {
-          if (parentRawSig.get(i) == '\n') {
-            break;
-          }
-          startColumn++;
-        }
-        int endColumn =
-            getEndColumnIndex(
-                parentRawSig, node.getFileLocation().getNodeOffset() + node.getLength());
-
         return new Region(
             fLocation.getStartingLineNumber(),
-            startColumn,
+            source.getColumn(start),
             fLocation.getEndingLineNumber(),
-            endColumn);
+            end > start ? source.getColumn(end - 1) + 1 : source.getColumn(start));
       }
     }
     return new Region();
   }
 
-  private Field getField(Class<?> type, String fieldName) throws NoSuchFieldException {
+  /**
+   * Returns the source code of the file the location refers to. The source code of included files
+   * is shared with the other frontends of the translation, if their content is cached (see {@link
+   * IncludeFileCache#getSourceCode}), so that it is only read and indexed once.
+   */
+  private SourceCode getFileSourceCode(IASTFileLocation location) {
+    if (sourceCode != null && sourceCode.getFile().equals(location.getFileName())) {
+      return sourceCode;
+    }
+    if (includeFiles != null) {
+      return includeFiles.getSourceCode(
+          location.getFileName(), file -> readSourceCode(file, location));
+    }
+    return includedSources.computeIfAbsent(
+        location.getFileName(), file -> readSourceCode(file, location));
+  }
+
+  /**
+   * CDT does not expose the source of included files, so we directly access the field containing
+   * it. This may break in future versions of the CDT parser, when fields are renamed (which is
+   * unlikely). In this case, we read the file again.
+   */
+  private SourceCode readSourceCode(String file, IASTFileLocation location) {
+    try {
+      Object locCtx = LOCATION_CTX.get(location.getClass()).get(location);
+      AbstractCharArray chars = (AbstractCharArray) SOURCE.get(locCtx.getClass()).get(locCtx);
+      char[] content = new char[chars.getLength()];
+      chars.arraycopy(0, content, 0, content.length);
+      return new SourceCode(file, new String(content));
+    } catch (ReflectiveOperationException | ClassCastException | NullPointerException e) {
+      LOGGER.warn("Reflective retrieval of the source of {} failed, reading it again", file);
+    }
     try {
-      return type.getDeclaredField(fieldName);
-    } catch (NoSuchFieldException e) {
-      if (type.getSuperclass() != null) {
-        return getField(type.getSuperclass(), fieldName);
+      return new SourceCode(file, Files.readString(Path.of(file)));
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Could not read the source of {}, columns may be wrong", file);
+      return new SourceCode(file, "");
+    }
+  }
+
+  /**
+   * Nodes may also be created from included files, so only the code snippet of a node tells which
+   * file it belongs to.
+   */
+  @Override
+  @Nullable
+  protected SourceCode getSourceCode(de.fraunhofer.aisec.cpg.graph.Node node) {
+    CharSequence code = node.getCodeSequence();
+    return code instanceof SourceCode.Snippet ? ((SourceCode.Snippet) code).getSource() : null;
+  }
+
+  @Nullable
+  private static Field getField(Class<?> type, String fieldName) {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      try {
+        Field field = c.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return field;
+      } catch (NoSuchFieldException e) {
+        // try the superclass
       }
-      throw e;
     }
+    return null;
   }
 
   public void expressionRefersToDeclaration(Expression expression, IASTExpression iastExpression) {
@@ -321,6 +364,11 @@ public class CXXLanguageFrontend extends LanguageFrontend {
     return cachedDeclarations.get(binding);
   }
 
+  @Nullable
+  public HeaderDeclarationCache getHeaderDeclarations() {
+    return headerDeclarations;
+  }
+
   @Override
   public void cleanup() {
     super.cleanup();
@@ -332,6 +380,11 @@ public class CXXLanguageFrontend extends LanguageFrontend {
     parameterDeclarationHandler = null;
     statementHandler = null;
     cachedDeclarations = null;
+    includedSources = null;
+    if (includeFiles != null) {
+      includeFiles.release();
+      includeFiles = null;
+    }
   }
 
   @Override
@@ -374,4 +427,37 @@ public class CXXLanguageFrontend extends LanguageFrontend {
   public StatementHandler getStatementHandler() {
     return statementHandler;
   }
+
+  /** Provides the content of include files, from the include file cache if there is one. */
+  private static class IncludeFileProvider extends InternalFileContentProvider {
+
+    @Nullable private final IncludeFileCache cache;
+
+    private IncludeFileProvider(@Nullable IncludeFileCache cache) {
+      this.cache = cache;
+    }
+
+    private InternalFileContent getContentUncached(String path) {
+      if (!getInclusionExists(path)) {
+        LOGGER.debug("Include file not found: {}", path);
+        return null;
+      }
+      LOGGER.debug("Loading include file {}", path);
+      if (cache != null) {
+        return cache.getContent(path);
+      }
+      return (InternalFileContent) FileContent.createForExternalFileLocation(path);
+    }
+
+    @Override
+    public InternalFileContent getContentForInclusion(
+        String path, IMacroDictionary macroDictionary) {
+      return getContentUncached(path);
+    }
+
+    @Override
+    public InternalFileContent getContentForInclusion(IIndexFileLocation ifl, String astPath) {
+      return getContentUncached(astPath);
+    }
+  }
 }
@@ -27,8 +27,11 @@
 package de.fraunhofer.aisec.cpg.frontends.cpp;
 
 import de.fraunhofer.aisec.cpg.frontends.Handler;
+import de.fraunhofer.aisec.cpg.frontends.cpp.HeaderDeclarationCache.SharedDeclaration;
 import de.fraunhofer.aisec.cpg.graph.CompoundStatement;
 import de.fraunhofer.aisec.cpg.graph.Declaration;
+import de.fraunhofer.aisec.cpg.graph.EnumConstantDeclaration;
+import de.fraunhofer.aisec.cpg.graph.EnumDeclaration;
 import de.fraunhofer.aisec.cpg.graph.FunctionDeclaration;
 import de.fraunhofer.aisec.cpg.graph.IncludeDeclaration;
 import de.fraunhofer.aisec.cpg.graph.NamespaceDeclaration;
@@ -38,14 +41,25 @@ import de.fraunhofer.aisec.cpg.graph.ReturnStatement;
 import de.fraunhofer.aisec.cpg.graph.Statement;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Type;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTEnumerationSpecifier.IASTEnumerator;
+import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
+import org.eclipse.cdt.core.dom.ast.IASTMacroExpansionLocation;
+import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTNodeLocation;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTCompositeTypeSpecifier;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTEnumerationSpecifier;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTFunctionDefinition;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTLinkageSpecification;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTName;
@@ -159,6 +173,9 @@ public class DeclarationHandler extends Handler<Declaration, IASTDeclaration, CX
           declaration);
 
       return declaration;
+    } else if (ctx.getDeclarators().length == 0
+        && ctx.getDeclSpecifier() instanceof CPPASTEnumerationSpecifier) {
+      return handleEnum((CPPASTEnumerationSpecifier) ctx.getDeclSpecifier());
     } else if (ctx.getDeclarators().length == 1) {
 
       List<Declaration> handle = (this.lang).getDeclarationListHandler().handle(ctx);
@@ -175,6 +192,139 @@ public class DeclarationHandler extends Handler<Declaration, IASTDeclaration, CX
     return null;
   }
 
+  private EnumDeclaration handleEnum(CPPASTEnumerationSpecifier ctx) {
+    EnumDeclaration enumDeclaration =
+        NodeBuilder.newEnumDeclaration(
+            ctx.getName().toString(), ctx.getRawSignature(), lang.getRegionFromRawNode(ctx));
+
+    List<EnumConstantDeclaration> entries = new ArrayList<>();
+    for (IASTEnumerator enumerator : ctx.getEnumerators()) {
+      EnumConstantDeclaration entry =
+          NodeBuilder.newEnumConstantDeclaration(
+              enumerator.getName().toString(),
+              enumerator.getRawSignature(),
+              lang.getRegionFromRawNode(enumerator));
+      entry.setType(new Type(enumDeclaration.getName()));
+
+      // cache binding, so that references to the enumerator are connected
+      this.lang.cacheDeclaration(enumerator.getName().resolveBinding(), entry);
+
+      entries.add(entry);
+    }
+    enumDeclaration.setEntries(entries);
+
+    this.lang.cacheDeclaration(ctx.getName().resolveBinding(), enumDeclaration);
+
+    return enumDeclaration;
+  }
+
+  /**
+   * Checks whether a declaration belongs to an included header and can be shared with other
+   * translation units. Declarations that contain macro expansions are not shared, since their
+   * meaning depends on the macros defined by the including file.
+   */
+  private boolean isSharable(CPPASTTranslationUnit translationUnit, IASTDeclaration declaration) {
+    IASTFileLocation location = declaration.getFileLocation();
+    if (location == null || location.getFileName().equals(translationUnit.getFilePath())) {
+      return false;
+    }
+    for (IASTNodeLocation nodeLocation : declaration.getNodeLocations()) {
+      if (nodeLocation instanceof IASTMacroExpansionLocation) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds a declaration of an included header to the shared declarations of a translation unit. The
+   * declaration is only converted by the first translation unit that claims it, all other units
+   * wait for the conversion.
+   *
+   * @return null if the declaration was shared, otherwise the declaration that needs to be added to
+   *     the unit itself, e.g. a {@link ProblemDeclaration}
+   */
+  @Nullable
+  private Declaration handleSharedDeclaration(
+      IASTDeclaration declaration, TranslationUnitDeclaration node) {
+    HeaderDeclarationCache headers = lang.getHeaderDeclarations();
+    IASTFileLocation location = declaration.getFileLocation();
+    String key =
+        HeaderDeclarationCache.getKey(
+            location.getFileName(), location.getNodeOffset(), location.getNodeLength());
+    CompletableFuture<SharedDeclaration> pending = headers.claim(key);
+    if (pending == null) {
+      Declaration decl = null;
+      try {
+        decl = handle(declaration);
+      } finally {
+        if (decl == null || decl instanceof ProblemDeclaration) {
+          headers.abandon(key);
+        }
+      }
+      if (decl == null || decl instanceof ProblemDeclaration) {
+        return decl;
+      }
+      Map<String, Declaration> names = new HashMap<>();
+      forEachDeclaredName(
+          declaration,
+          (name, nameKey) -> {
+            Declaration named = lang.getCachedDeclaration(name.resolveBinding());
+            if (named != null) {
+              names.put(nameKey, named);
+            }
+          });
+      headers.share(location.getFileName(), key, decl, names);
+      node.getSharedDeclarations().add(decl);
+      return null;
+    }
+
+    SharedDeclaration shared = pending.join();
+    if (shared == null) {
+      // the unit that claimed the declaration could not convert it
+      return handle(declaration);
+    }
+    lang.process(declaration, shared.getDeclaration());
+    // the bindings of this unit need to refer to the shared declarations, e.g. for references to
+    // fields or enumerators
+    forEachDeclaredName(
+        declaration,
+        (name, nameKey) -> {
+          Declaration named = shared.getName(nameKey);
+          if (named != null) {
+            lang.cacheDeclaration(name.resolveBinding(), named);
+          }
+        });
+    node.getSharedDeclarations().add(shared.getDeclaration());
+    return null;
+  }
+
+  /**
+   * Calls the consumer for every name that is declared within a declaration, together with the key
+   * of the location of the name, see {@link HeaderDeclarationCache#getKey}.
+   */
+  private static void forEachDeclaredName(
+      IASTDeclaration declaration, BiConsumer<IASTName, String> consumer) {
+    ASTVisitor visitor =
+        new ASTVisitor() {
+          @Override
+          public int visit(IASTName name) {
+            IASTFileLocation location = name.getFileLocation();
+            if (name.isDeclaration() && location != null) {
+              consumer.accept(
+                  name,
+                  HeaderDeclarationCache.getKey(
+                      location.getFileName(),
+                      location.getNodeOffset(),
+                      location.getNodeLength()));
+            }
+            return PROCESS_CONTINUE;
+          }
+        };
+    visitor.shouldVisitNames = true;
+    declaration.accept(visitor);
+  }
+
   private void parseInclusions(
       IASTTranslationUnit.IDependencyTree.IASTInclusionNode[] includes,
       HashMap<String, HashSet<String>> allIncludes) {
@@ -192,7 +342,7 @@ public class DeclarationHandler extends Handler<Declaration, IASTDeclaration, CX
   TranslationUnitDeclaration handleTranslationUnit(CPPASTTranslationUnit translationUnit) {
     TranslationUnitDeclaration node =
         NodeBuilder.newTranslationUnitDeclaration(
-            translationUnit.getFilePath(), translationUnit.getRawSignature());
+            translationUnit.getFilePath(), lang.getSourceCode().getSnippet());
 
     HashMap<String, HashSet<ProblemDeclaration>> problematicIncludes = new HashMap<>();
     for (IASTDeclaration declaration : translationUnit.getDeclarations()) {
@@ -200,7 +350,16 @@ public class DeclarationHandler extends Handler<Declaration, IASTDeclaration, CX
         continue; // do not care about these for now
       }
 
-      Declaration decl = handle(declaration);
+      Declaration decl;
+      if (lang.getHeaderDeclarations() != null && isSharable(translationUnit, declaration)) {
+        decl = handleSharedDeclaration(declaration, node);
+        if (decl == null) {
+          continue;
+        }
+      } else {
+        decl = handle(declaration);
+      }
+
       if (decl instanceof ProblemDeclaration) {
         HashSet<ProblemDeclaration> problems =
             problematicIncludes.computeIfAbsent(
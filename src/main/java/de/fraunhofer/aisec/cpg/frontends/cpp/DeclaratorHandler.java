@@ -45,13 +45,18 @@ import java.util.List;
 import java.util.stream.Collectors;
 import org.eclipse.cdt.core.dom.ast.IASTCompositeTypeSpecifier;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTDeclarator;
 import org.eclipse.cdt.core.dom.ast.IASTExpression;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
 import org.eclipse.cdt.core.dom.ast.IASTInitializer;
 import org.eclipse.cdt.core.dom.ast.IASTNameOwner;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclaration;
 import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IFunction;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTCompositeTypeSpecifier;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTParameterDeclaration;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPMethod;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTArrayDeclarator;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTCompositeTypeSpecifier;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTDeclarator;
@@ -166,6 +171,11 @@ class DeclaratorHandler extends Handler<Declaration, IASTNameOwner, CXXLanguageF
   private FunctionDeclaration handleFunctionDeclarator(CPPASTFunctionDeclarator ctx) {
     FunctionDeclaration declaration =
         NodeBuilder.newFunctionDeclaration(ctx.getName().toString(), ctx.getRawSignature());
+    IBinding function = ctx.getName().resolveBinding();
+    declaration.setInternalLinkage(
+        function instanceof IFunction
+            && !(function instanceof ICPPMethod)
+            && ((IFunction) function).isStatic());
     lang.getScopeManager().enterScope(declaration);
 
     int i = 0;
@@ -260,14 +270,18 @@ class DeclaratorHandler extends Handler<Declaration, IASTNameOwner, CXXLanguageF
             declarationScope.setAstNode(
                 constructor); // Adjust cpg Node by which scopes are identified
           recordDeclaration.getConstructors().add(constructor);
+          cacheMember(member, constructor);
         } else {
           MethodDeclaration method = MethodDeclaration.from((FunctionDeclaration) declaration);
           if (declarationScope != null)
             declarationScope.setAstNode(method); // Adjust cpg Node by which scopes are identified
           recordDeclaration.getMethods().add(method);
+          cacheMember(member, method);
         }
       } else if (declaration instanceof VariableDeclaration) {
-        recordDeclaration.getFields().add(FieldDeclaration.from((VariableDeclaration) declaration));
+        FieldDeclaration field = FieldDeclaration.from((VariableDeclaration) declaration);
+        recordDeclaration.getFields().add(field);
+        cacheMember(member, field);
       }
     }
 
@@ -282,4 +296,21 @@ class DeclaratorHandler extends Handler<Declaration, IASTNameOwner, CXXLanguageF
     lang.getScopeManager().leaveScope(recordDeclaration);
     return recordDeclaration;
   }
+
+  /**
+   * Binds the name of a record member to the declaration that is actually added to the record,
+   * since fields and methods are converted from the declarations created by the member handlers.
+   */
+  private void cacheMember(IASTDeclaration member, Declaration declaration) {
+    IASTDeclarator declarator = null;
+    if (member instanceof IASTSimpleDeclaration
+        && ((IASTSimpleDeclaration) member).getDeclarators().length == 1) {
+      declarator = ((IASTSimpleDeclaration) member).getDeclarators()[0];
+    } else if (member instanceof IASTFunctionDefinition) {
+      declarator = ((IASTFunctionDefinition) member).getDeclarator();
+    }
+    if (declarator != null) {
+      lang.cacheDeclaration(declarator.getName().resolveBinding(), declaration);
+    }
+  }
 }
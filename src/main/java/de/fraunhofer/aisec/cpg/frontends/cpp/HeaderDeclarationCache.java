@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.frontends.cpp;
+
+import de.fraunhofer.aisec.cpg.graph.Declaration;
+import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The declarations of header files, shared by all {@link CXXLanguageFrontend}s of a translation.
+ *
+ * <p>A declaration of a header is only converted by the first translation unit that includes the
+ * header, which claims it, see {@link #claim(String)}. It is then added to a {@link
+ * TranslationUnitDeclaration} of its own for the header file, and all translation units that
+ * include the header refer to it by their {@link
+ * TranslationUnitDeclaration#getSharedDeclarations()}.
+ */
+public class HeaderDeclarationCache {
+
+  /** The shared declarations, by their location in the header, see {@link #getKey}. */
+  private final Map<String, CompletableFuture<SharedDeclaration>> declarations = new HashMap<>();
+
+  /** The translation units holding the shared declarations, by the file name of the header. */
+  private final Map<String, TranslationUnitDeclaration> headers = new HashMap<>();
+
+  /**
+   * Returns the key of a header declaration, which is built from the file and the position of the
+   * declaration within that file.
+   */
+  public static String getKey(String file, int offset, int length) {
+    return file + ":" + offset + ":" + length;
+  }
+
+  /**
+   * Claims the conversion of the declaration with the given key. The first frontend to claim a key
+   * has to convert the declaration and to either {@link #share} or {@link #abandon} it. All other
+   * frontends receive the pending result, which completes with null if the declaration was
+   * abandoned.
+   *
+   * @param key the key of the declaration, see {@link #getKey}
+   * @return null, if the caller has claimed the declaration, otherwise its pending result
+   */
+  @Nullable
+  public synchronized CompletableFuture<SharedDeclaration> claim(String key) {
+    CompletableFuture<SharedDeclaration> pending = declarations.get(key);
+    if (pending == null) {
+      declarations.put(key, new CompletableFuture<>());
+    }
+    return pending;
+  }
+
+  /**
+   * Shares a declaration of a header that the caller has claimed.
+   *
+   * @param file the file name of the header
+   * @param key the key of the declaration, see {@link #getKey}
+   * @param declaration the converted declaration
+   * @param names the declarations of all names declared within the declaration, by the key of the
+   *     location of the name
+   */
+  public synchronized void share(
+      String file, String key, Declaration declaration, Map<String, Declaration> names) {
+    headers
+        .computeIfAbsent(file, f -> NodeBuilder.newTranslationUnitDeclaration(f, ""))
+        .add(declaration);
+    declarations.get(key).complete(new SharedDeclaration(declaration, names));
+  }
+
+  /**
+   * Releases the claim of a declaration that could not be converted. Frontends waiting for it
+   * convert the declaration themselves, and the next frontend may claim it again.
+   */
+  public synchronized void abandon(String key) {
+    CompletableFuture<SharedDeclaration> pending = declarations.remove(key);
+    if (pending != null) {
+      pending.complete(null);
+    }
+  }
+
+  /** Returns the translation units of all headers with shared declarations, by file name. */
+  public synchronized List<TranslationUnitDeclaration> getHeaders() {
+    List<TranslationUnitDeclaration> units = new ArrayList<>(headers.values());
+    units.sort(Comparator.comparing(TranslationUnitDeclaration::getName));
+    return units;
+  }
+
+  /** A shared declaration together with the declarations of the names it declares. */
+  public static class SharedDeclaration {
+
+    private final Declaration declaration;
+    private final Map<String, Declaration> names;
+
+    private SharedDeclaration(Declaration declaration, Map<String, Declaration> names) {
+      this.declaration = declaration;
+      this.names = Map.copyOf(names);
+    }
+
+    public Declaration getDeclaration() {
+      return declaration;
+    }
+
+    /**
+     * Returns the declaration of a name declared within the shared declaration, e.g. a field of a
+     * record or an enumerator.
+     *
+     * @param key the key of the location of the name, see {@link #getKey}
+     */
+    @Nullable
+    public Declaration getName(String key) {
+      return names.get(key);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.frontends.cpp;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.graph.SourceCode;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.eclipse.cdt.core.parser.FileContent;
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
+
+/**
+ * Caches the content of include files across translation units, so that a header is only read
+ * once, no matter how many files include it.
+ *
+ * <p>The cache holds at most a fixed number of characters and evicts the least recently used files
+ * first. A file is read again if it was modified since it was cached. It belongs to one
+ * translation, see {@link TranslationConfiguration#includeCacheSize}, and is cleared once the last
+ * frontend using it is cleaned up.
+ */
+public class IncludeFileCache {
+
+  /** Default size of the cache, in characters. */
+  public static final long DEFAULT_SIZE = 64L * 1024 * 1024;
+
+  private final long maxSize;
+
+  /** The cached files, from the least to the most recently used one. */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** The source code of included files, see {@link #getSourceCode}. */
+  private final Map<String, SourceCode> sources = new ConcurrentHashMap<>();
+
+  private long size = 0;
+  private long hits = 0;
+  private long misses = 0;
+  private int users = 0;
+
+  public IncludeFileCache(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the content of an include file.
+   *
+   * @param path the absolute path of the file
+   * @return a new file content for the parser, or null if the file cannot be read
+   */
+  @Nullable
+  public InternalFileContent getContent(String path) {
+    long lastModified = new File(path).lastModified();
+    synchronized (this) {
+      Entry entry = entries.get(path);
+      if (entry != null && entry.lastModified == lastModified) {
+        hits++;
+        return (InternalFileContent) FileContent.create(path, entry.content);
+      }
+    }
+
+    // read the file outside of the lock, so that other files can be served in the meantime
+    FileContent read = FileContent.createForExternalFileLocation(path);
+    if (!(read instanceof InternalFileContent)) {
+      return null;
+    }
+    AbstractCharArray source = ((InternalFileContent) read).getSource();
+    if (source == null) {
+      return (InternalFileContent) read;
+    }
+    char[] content = new char[source.getLength()];
+    source.arraycopy(0, content, 0, content.length);
+
+    synchronized (this) {
+      misses++;
+      Entry previous = entries.put(path, new Entry(content, lastModified));
+      if (previous != null) {
+        size -= previous.content.length;
+      }
+      size += content.length;
+      evict();
+    }
+    return (InternalFileContent) read;
+  }
+
+  /**
+   * Returns the source code of an included file, which the nodes of all translation units including
+   * it share, so that its content and line index are only held once per translation. It is not
+   * counted against the size of the cache, since the nodes refer to it anyway.
+   *
+   * @param path the path of the file
+   * @param read reads the source code, if it is not known yet
+   * @return the source code
+   */
+  public SourceCode getSourceCode(String path, Function<String, SourceCode> read) {
+    return sources.computeIfAbsent(path, read);
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    // always keep the most recent file, even if it exceeds the size on its own
+    while (size > maxSize && entries.size() > 1) {
+      size -= it.next().getValue().content.length;
+      it.remove();
+    }
+  }
+
+  /** Returns the number of requests that were served from the cache. */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /** Returns the number of requests that needed to read the file. */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /** Returns the number of characters that are currently cached. */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /** Registers a frontend using this cache. Must be paired with a call to {@link #release()}. */
+  synchronized void acquire() {
+    users++;
+  }
+
+  /** Clears the cache once it is no longer used by any frontend. */
+  synchronized void release() {
+    if (--users <= 0) {
+      clear();
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    sources.clear();
+    size = 0;
+  }
+
+  private static final class Entry {
+
+    private final char[] content;
+    private final long lastModified;
+
+    private Entry(char[] content, long lastModified) {
+      this.content = content;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -204,9 +204,8 @@ class StatementHandler extends Handler<Statement, IASTStatement, CXXLanguageFron
       // If the Label AST node was could not be resolved, the matchign is done based on label names
       // of CPG nodes using the predicate listeners
       lang.registerPredicateListener(
-          (from, to) ->
-              to instanceof LabelStatement
-                  && ((LabelStatement) to).getLabel().equals(statement.getLabelName()),
+          LabelStatement.class,
+          (from, to) -> ((LabelStatement) to).getLabel().equals(statement.getLabelName()),
           assigneTargetLabel);
     }
     return statement;
@@ -111,11 +111,11 @@ public class DeclarationHandler
 
   public ConstructorDeclaration handleConstructorDeclaration(
       com.github.javaparser.ast.body.ConstructorDeclaration constructorDecl) {
-    ResolvedConstructorDeclaration resolvedConstructor = constructorDecl.resolve();
+    ResolvedConstructorDeclaration resolvedConstructor = lang.resolve(constructorDecl::resolve);
 
     de.fraunhofer.aisec.cpg.graph.ConstructorDeclaration declaration =
         NodeBuilder.newConstructorDeclaration(
-            resolvedConstructor.getName(), constructorDecl.toString());
+            lang.resolve(resolvedConstructor::getName), constructorDecl.toString());
     lang.getScopeManager().addValueDeclaration(declaration);
 
     lang.getScopeManager().enterScope(declaration);
@@ -130,7 +130,7 @@ public class DeclarationHandler
       ParamVariableDeclaration param =
           NodeBuilder.newMethodParameterIn(
               parameter.getNameAsString(),
-              this.lang.getTypeAsGoodAsPossible(parameter, parameter.resolve()),
+              this.lang.getTypeAsGoodAsPossible(parameter, lang.resolve(parameter::resolve)),
               parameter.isVarArgs(),
               parameter.toString());
 
@@ -160,11 +160,11 @@ public class DeclarationHandler
 
   public MethodDeclaration handleMethodDeclaration(
       com.github.javaparser.ast.body.MethodDeclaration methodDecl) {
-    ResolvedMethodDeclaration resolvedMethod = methodDecl.resolve();
+    ResolvedMethodDeclaration resolvedMethod = lang.resolve(methodDecl::resolve);
 
     de.fraunhofer.aisec.cpg.graph.MethodDeclaration functionDeclaration =
         NodeBuilder.newMethodDeclaration(
-            resolvedMethod.getName(), methodDecl.toString(), methodDecl.isStatic());
+            lang.resolve(resolvedMethod::getName), methodDecl.toString(), methodDecl.isStatic());
     lang.getScopeManager().enterScope(functionDeclaration);
 
     functionDeclaration
@@ -178,7 +178,7 @@ public class DeclarationHandler
       ParamVariableDeclaration param =
           NodeBuilder.newMethodParameterIn(
               parameter.getNameAsString(),
-              this.lang.getTypeAsGoodAsPossible(parameter, parameter.resolve()),
+              this.lang.getTypeAsGoodAsPossible(parameter, lang.resolve(parameter::resolve)),
               parameter.isVarArgs(),
               parameter.toString());
 
@@ -314,7 +314,8 @@ public class DeclarationHandler
             variable.getInitializer().map(this.lang.getExpressionHandler()::handle).orElse(null);
     de.fraunhofer.aisec.cpg.graph.Type type;
     try {
-      type = new de.fraunhofer.aisec.cpg.graph.Type(variable.resolve().getType().describe());
+      String typeName = lang.resolve(() -> variable.resolve().getType().describe());
+      type = new de.fraunhofer.aisec.cpg.graph.Type(typeName);
     } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
       String t = this.lang.recoverTypeFromUnsolvedException(e);
       if (t == null) {
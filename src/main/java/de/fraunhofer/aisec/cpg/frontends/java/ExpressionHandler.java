@@ -57,7 +57,6 @@ import com.github.javaparser.ast.expr.UnaryExpr;
 import com.github.javaparser.ast.expr.VariableDeclarationExpr;
 import com.github.javaparser.resolution.UnsolvedSymbolException;
 import com.github.javaparser.resolution.declarations.ResolvedFieldDeclaration;
-import com.github.javaparser.resolution.declarations.ResolvedTypeDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
 import de.fraunhofer.aisec.cpg.frontends.Handler;
 import de.fraunhofer.aisec.cpg.graph.ArrayCreationExpression;
@@ -126,7 +125,8 @@ public class ExpressionHandler
     castExpression.setCastType(t);
     if (castExpr.getType().isPrimitiveType()) {
       // Set Type based on the Casting type as it will result in a conversion for primitive types
-      castExpression.setType(new Type(castExpr.getType().resolve().asPrimitive().describe()));
+      String typeName = lang.resolve(() -> castExpr.getType().resolve().asPrimitive().describe());
+      castExpression.setType(new Type(typeName));
     } else {
       // Get Runtime type from cast expression for complex types;
 
@@ -192,7 +192,8 @@ public class ExpressionHandler
     ConditionalExpr conditionalExpr = expr.asConditionalExpr();
     Type superType;
     try {
-      superType = new Type(conditionalExpr.calculateResolvedType().describe());
+      String typeName = lang.resolve(() -> conditionalExpr.calculateResolvedType().describe());
+      superType = new Type(typeName);
     } catch (RuntimeException | NoClassDefFoundError e) {
       String s = this.lang.recoverTypeFromUnsolvedException(e);
       if (s != null) {
@@ -240,11 +241,11 @@ public class ExpressionHandler
         NodeBuilder.newDeclarationStatement(variableDeclarationExpr.toString());
 
     for (VariableDeclarator variable : variableDeclarationExpr.getVariables()) {
-      ResolvedValueDeclaration resolved = variable.resolve();
+      ResolvedValueDeclaration resolved = lang.resolve(variable::resolve);
 
       VariableDeclaration declaration =
           NodeBuilder.newVariableDeclaration(
-              resolved.getName(),
+              lang.resolve(resolved::getName),
               this.lang.getTypeAsGoodAsPossible(variable, resolved),
               variable.toString());
 
@@ -283,11 +284,12 @@ public class ExpressionHandler
       boolean isStaticAccess = false;
       Type baseType;
       try {
-        ResolvedValueDeclaration resolve = fieldAccessExpr.resolve();
-        if (resolve.asField().isStatic()) {
+        ResolvedFieldDeclaration field = lang.resolve(() -> fieldAccessExpr.resolve().asField());
+        if (lang.resolve(field::isStatic)) {
           isStaticAccess = true;
         }
-        baseType = new Type(resolve.asField().declaringType().getQualifiedName());
+        String baseTypeName = lang.resolve(() -> field.declaringType().getQualifiedName());
+        baseType = new Type(baseTypeName);
 
       } catch (RuntimeException | NoClassDefFoundError ex) {
         isStaticAccess = true;
@@ -345,8 +347,9 @@ public class ExpressionHandler
 
     Type fieldType;
     try {
-      ResolvedValueDeclaration symbol = fieldAccessExpr.resolve();
-      fieldType = new Type(symbol.asField().getType().describe());
+      String typeName =
+          lang.resolve(() -> fieldAccessExpr.resolve().asField().getType().describe());
+      fieldType = new Type(typeName);
       member =
           NodeBuilder.newDeclaredReferenceExpression(
               fieldAccessExpr.getName().getIdentifier(), fieldType, fieldAccessExpr.toString());
@@ -417,9 +420,8 @@ public class ExpressionHandler
   private DeclaredReferenceExpression handleThisExpression(Expression expr) {
     // TODO: use a separate ThisExpression (issue #8)
     ThisExpr thisExpr = expr.asThisExpr();
-    ResolvedTypeDeclaration resolvedValueDeclaration = thisExpr.resolve();
-
-    Type type = new Type(resolvedValueDeclaration.getQualifiedName());
+    String typeName = lang.resolve(() -> thisExpr.resolve().getQualifiedName());
+    Type type = new Type(typeName);
 
     DeclaredReferenceExpression thisExpression =
         NodeBuilder.newDeclaredReferenceExpression(thisExpr.toString(), type, thisExpr.toString());
@@ -450,12 +452,12 @@ public class ExpressionHandler
     //    }
 
     try {
-      ResolvedValueDeclaration symbol = nameExpr.resolve();
+      ResolvedValueDeclaration symbol = lang.resolve(nameExpr::resolve);
 
-      if (symbol.isField()) {
-        ResolvedFieldDeclaration field = symbol.asField();
+      if (lang.resolve(symbol::isField)) {
+        ResolvedFieldDeclaration field = lang.resolve(symbol::asField);
 
-        if (!field.isStatic()) {
+        if (!lang.resolve(field::isStatic)) {
           // convert to FieldAccessExpr
           FieldAccessExpr fieldAccessExpr = new FieldAccessExpr(new ThisExpr(), field.getName());
           expr.replace(fieldAccessExpr);
@@ -465,14 +467,16 @@ public class ExpressionHandler
         } else {
           FieldAccessExpr fieldAccessExpr =
               new FieldAccessExpr(
-                  new NameExpr(field.declaringType().getClassName()), field.getName());
+                  new NameExpr(lang.resolve(() -> field.declaringType().getClassName())),
+                  field.getName());
           expr.replace(fieldAccessExpr);
 
           // handle it as a field expression
           return (de.fraunhofer.aisec.cpg.graph.Expression) handle(fieldAccessExpr);
         }
       } else {
-        Type type = new Type(symbol.getType().describe());
+        String typeName = lang.resolve(() -> symbol.getType().describe());
+        Type type = new Type(typeName);
 
         DeclaredReferenceExpression declaredReferenceExpression =
             NodeBuilder.newDeclaredReferenceExpression(symbol.getName(), type, nameExpr.toString());
@@ -588,7 +592,7 @@ public class ExpressionHandler
       boolean isresolvable = false;
       try {
         if (scope instanceof NameExpr) {
-          ((NameExpr) scope).resolve();
+          lang.resolve(((NameExpr) scope)::resolve);
           isresolvable = true;
         }
       } catch (UnsolvedSymbolException ex) {
@@ -615,10 +619,13 @@ public class ExpressionHandler
     }
 
     String type = Type.UNKNOWN_TYPE;
-    try {
-      type = methodCallExpr.resolve().getReturnType().describe();
-    } catch (Throwable e) {
-      log.debug("Could not resolve return type for {}", methodCallExpr);
+    // no need to try again if the call could not be resolved for its qualified name
+    if (!this.lang.isUnresolved(this.lang.getUnresolvedKey(methodCallExpr))) {
+      try {
+        type = lang.resolve(() -> methodCallExpr.resolve().getReturnType().describe());
+      } catch (Throwable e) {
+        log.debug("Could not resolve return type for {}", methodCallExpr);
+      }
     }
 
     callExpression.getType().setFrom(type);
@@ -47,15 +47,12 @@ import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.nodeTypes.NodeWithType;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.UnknownType;
+import com.github.javaparser.ast.type.VarType;
 import com.github.javaparser.resolution.UnsolvedSymbolException;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
-import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import de.fraunhofer.aisec.cpg.TranslationConfiguration;
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
 import de.fraunhofer.aisec.cpg.frontends.TranslationException;
@@ -63,57 +60,57 @@ import de.fraunhofer.aisec.cpg.graph.IncludeDeclaration;
 import de.fraunhofer.aisec.cpg.graph.NamespaceDeclaration;
 import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
 import de.fraunhofer.aisec.cpg.graph.Region;
+import de.fraunhofer.aisec.cpg.graph.SourceCode;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Type.Origin;
 import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import de.fraunhofer.aisec.cpg.helpers.Benchmark;
-import de.fraunhofer.aisec.cpg.helpers.CommonPath;
 import de.fraunhofer.aisec.cpg.helpers.Util;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /** Main parser for ONE Java files. */
 public class JavaLanguageFrontend extends LanguageFrontend {
 
   private CompilationUnit context;
+  /**
+   * The imports of the current file by the last segment of their name, i.e. the simple name of
+   * imported types and static members. Static asterisk imports are indexed by the simple name of
+   * the type whose members they import. Asterisk imports of packages are not indexed, as the types
+   * they provide are not known without resolving them.
+   */
+  private Map<String, List<String>> importsByName = new HashMap<>();
 
   private ExpressionHandler expressionHandler = new ExpressionHandler(this);
   private StatementAnalyzer statementHandler = new StatementAnalyzer(this);
   private DeclarationHandler declarationHandler = new DeclarationHandler(this);
 
+  private JavaTypeSolverCache typeSolvers;
   private JavaSymbolSolver javaSymbolResolver;
-  private HashSet<TypeSolver> internalTypeSolvers =
-      new HashSet<>(); // we store a reference here to clean them up later
 
   public JavaLanguageFrontend(TranslationConfiguration config) {
-    super(config, ".");
+    this(config, new JavaTypeSolverCache(config));
+  }
 
-    CombinedTypeSolver typeResolver = new CombinedTypeSolver();
-    internalTypeSolvers.add(typeResolver);
-    ReflectionTypeSolver reflectionTypeSolver = new ReflectionTypeSolver();
-    internalTypeSolvers.add(reflectionTypeSolver);
-    typeResolver.add(reflectionTypeSolver);
-    if (config != null) {
-      File root = config.getTopLevel();
-      if (root == null) {
-        root = CommonPath.commonPath(config.getSourceFiles());
-      }
+  /**
+   * Creates a frontend that resolves symbols with the given type solvers, which may be shared with
+   * the frontends of other files of the same translation.
+   */
+  public JavaLanguageFrontend(TranslationConfiguration config, JavaTypeSolverCache typeSolvers) {
+    super(config, ".");
 
-      if (root == null) {
-        log.warn("Could not determine source root for {}", config.getSourceFiles());
-      } else {
-        log.info("Source file root used for type solver: {}", root);
-        JavaParserTypeSolver javaParserTypeSolver = new JavaParserTypeSolver(root);
-        internalTypeSolvers.add(javaParserTypeSolver);
-        typeResolver.add(javaParserTypeSolver);
-      }
-    }
-    this.javaSymbolResolver = new JavaSymbolSolver(typeResolver);
+    this.typeSolvers = typeSolvers;
+    this.javaSymbolResolver = typeSolvers.acquire();
   }
 
   @Override
@@ -125,19 +122,24 @@ public class JavaLanguageFrontend extends LanguageFrontend {
     try (FileInputStream in = new FileInputStream(file)) {
       ParserConfiguration parserConfiguration = new ParserConfiguration();
       parserConfiguration.setSymbolResolver(this.javaSymbolResolver);
+      parserConfiguration.setAttributeComments(c.commentsInNodes);
       JavaParser parser = new JavaParser(parserConfiguration);
 
       // parse the file
       Benchmark bench = new Benchmark(this.getClass(), "Parsing sourcefile");
-      context = parse(Util.inputStreamToString(in), parser);
+      String content = Util.inputStreamToString(in);
+      sourceCode = new SourceCode(file.toString(), content);
+      context = parse(content, parser);
+      indexImports();
       bench.stop();
 
+      // resolutions of the symbol solver are serialized, see #resolve
       bench = new Benchmark(this.getClass(), "Transform to CPG");
       context.setData(com.github.javaparser.ast.Node.SYMBOL_RESOLVER_KEY, this.javaSymbolResolver);
 
       // starting point is always a translation declaration
       TranslationUnitDeclaration fileDeclaration =
-          NodeBuilder.newTranslationUnitDeclaration(file.toString(), context.toString());
+          NodeBuilder.newTranslationUnitDeclaration(file.toString(), sourceCode.getSnippet());
       TranslationUnitDeclaration declaration = fileDeclaration;
 
       PackageDeclaration packDecl = context.getPackageDeclaration().orElse(null);
@@ -212,6 +214,23 @@ public class JavaLanguageFrontend extends LanguageFrontend {
     return null;
   }
 
+  @Override
+  protected <T> CharSequence getCodeSnippetFromRawNode(T astNode) {
+    if (sourceCode != null && astNode instanceof Node) {
+      Optional<Range> optional = ((Node) astNode).getRange();
+      if (optional.isPresent()) {
+        Range r = optional.get();
+        int start = sourceCode.getOffset(r.begin.line, r.begin.column);
+        int end = sourceCode.getOffset(r.end.line, r.end.column);
+        CharSequence snippet = start < 0 || end < 0 ? null : sourceCode.getSnippet(start, end + 1);
+        if (snippet != null) {
+          return snippet;
+        }
+      }
+    }
+    return getCodeFromRawNode(astNode);
+  }
+
   @Override
   @NonNull
   public <T> Region getRegionFromRawNode(T astNode) {
@@ -229,51 +248,61 @@ public class JavaLanguageFrontend extends LanguageFrontend {
 
   public de.fraunhofer.aisec.cpg.graph.Type getTypeAsGoodAsPossible(
       NodeWithType nodeWithType, ResolvedValueDeclaration resolved) {
+    String key = getUnresolvedKey(nodeWithType.getType());
+    if (isUnresolved(key)) {
+      return getTypeFromImportIfPossible(nodeWithType.getType());
+    }
     try {
-      return new de.fraunhofer.aisec.cpg.graph.Type(resolved.getType().describe());
+      String typeName = resolve(() -> resolved.getType().describe());
+      return new de.fraunhofer.aisec.cpg.graph.Type(typeName);
     } catch (RuntimeException | NoClassDefFoundError ex) {
+      markUnresolved(key);
       return getTypeFromImportIfPossible(nodeWithType.getType());
     }
   }
 
   public String getQualifiedMethodNameAsGoodAsPossible(MethodCallExpr callExpr) {
+    String key = getUnresolvedKey(callExpr);
     try {
-      return callExpr.resolve().getQualifiedName();
+      if (!isUnresolved(key)) {
+        return resolve(() -> callExpr.resolve().getQualifiedName());
+      }
     } catch (RuntimeException | NoClassDefFoundError ex) {
-      Optional<Expression> scope = callExpr.getScope();
-      if (scope.isPresent()) {
-        Expression expression = scope.get();
-        if (expression instanceof NameExpr) {
-          // try to look for imports matching the name
-          // i.e. a static call
-          String fromImport = getQualifiedNameFromImports(callExpr.getNameAsString());
-          if (fromImport != null) {
-            return fromImport;
-          }
-        }
-        if (scope.get().toString().equals("this")) {
-          // this is not strictly true. This could also be a function of a superclass,
-          // but is the best we can do for now.
-          // if the superclass would be known, this would already be resolved by the Javaresolver
-          return this.getScopeManager().getCurrentNamePrefix() + "." + callExpr.getNameAsString();
-        } else {
-          return scope.get().toString() + "." + callExpr.getNameAsString();
-        }
-      } else {
-        // if the method is a static method of a resolveable class, the .resolve() would have
-        // worked.
-        // but, the following can still be false, if the superclass implements callExpr, but is not
-        // available for analysis
-
-        // check if this is a "specific" static import (not of the type 'import static x.y.Z.*')
+      markUnresolved(key);
+    }
+    Optional<Expression> scope = callExpr.getScope();
+    if (scope.isPresent()) {
+      Expression expression = scope.get();
+      if (expression instanceof NameExpr) {
+        // try to look for imports matching the name
+        // i.e. a static call
         String fromImport = getQualifiedNameFromImports(callExpr.getNameAsString());
         if (fromImport != null) {
           return fromImport;
         }
-        // this is not strictly true. This could also be a function of a superclass or from a
-        // static asterisk import
+      }
+      if (scope.get().toString().equals("this")) {
+        // this is not strictly true. This could also be a function of a superclass,
+        // but is the best we can do for now.
+        // if the superclass would be known, this would already be resolved by the Javaresolver
         return this.getScopeManager().getCurrentNamePrefix() + "." + callExpr.getNameAsString();
+      } else {
+        return scope.get().toString() + "." + callExpr.getNameAsString();
       }
+    } else {
+      // if the method is a static method of a resolveable class, the .resolve() would have
+      // worked.
+      // but, the following can still be false, if the superclass implements callExpr, but is not
+      // available for analysis
+
+      // check if this is a "specific" static import (not of the type 'import static x.y.Z.*')
+      String fromImport = getQualifiedNameFromImports(callExpr.getNameAsString());
+      if (fromImport != null) {
+        return fromImport;
+      }
+      // this is not strictly true. This could also be a function of a superclass or from a
+      // static asterisk import
+      return this.getScopeManager().getCurrentNamePrefix() + "." + callExpr.getNameAsString();
     }
   }
 
@@ -301,35 +330,140 @@ public class JavaLanguageFrontend extends LanguageFrontend {
     return null;
   }
 
+  private void indexImports() {
+    importsByName = new HashMap<>();
+    for (ImportDeclaration importDeclaration : context.getImports()) {
+      if (importDeclaration.isAsterisk() && !importDeclaration.isStatic()) {
+        continue;
+      }
+      importsByName
+          .computeIfAbsent(importDeclaration.getName().getIdentifier(), x -> new ArrayList<>())
+          .add(importDeclaration.getName().asString());
+    }
+  }
+
   public String getQualifiedNameFromImports(String className) {
-    if (context != null) {
-      // see if we can make the qualifier more precise using the imports
-      for (ImportDeclaration importDeclaration : context.getImports()) {
-        if (importDeclaration.getName().asString().endsWith("." + className)) {
-          return importDeclaration.getName().asString();
-        }
+    // see if we can make the qualifier more precise using the imports
+    String simpleName = className.substring(className.lastIndexOf('.') + 1);
+    for (String imported : importsByName.getOrDefault(simpleName, List.of())) {
+      if (imported.endsWith("." + className)) {
+        return imported;
       }
     }
     return null;
   }
 
   public de.fraunhofer.aisec.cpg.graph.Type getTypeAsGoodAsPossible(Type type) {
+    String key = getUnresolvedKey(type);
+    if (isUnresolved(key)) {
+      return getTypeFromImportIfPossible(type);
+    }
     try {
-      return new de.fraunhofer.aisec.cpg.graph.Type(type.resolve().describe());
+      String typeName = resolve(() -> type.resolve().describe());
+      return new de.fraunhofer.aisec.cpg.graph.Type(typeName);
     } catch (RuntimeException | NoClassDefFoundError ex) {
+      markUnresolved(key);
       return getTypeFromImportIfPossible(type);
     }
   }
 
   public de.fraunhofer.aisec.cpg.graph.Type getReturnTypeAsGoodAsPossible(
       NodeWithType nodeWithType, ResolvedMethodDeclaration resolved) {
+    String key = getUnresolvedKey(nodeWithType.getType());
+    if (isUnresolved(key)) {
+      return getTypeFromImportIfPossible(nodeWithType.getType());
+    }
     try {
-      return new de.fraunhofer.aisec.cpg.graph.Type(resolved.getReturnType().describe());
+      String typeName = resolve(() -> resolved.getReturnType().describe());
+      return new de.fraunhofer.aisec.cpg.graph.Type(typeName);
     } catch (RuntimeException | NoClassDefFoundError ex) {
+      markUnresolved(key);
       return getTypeFromImportIfPossible(nodeWithType.getType());
     }
   }
 
+  public JavaTypeSolverCache getTypeSolvers() {
+    return typeSolvers;
+  }
+
+  /**
+   * Resolves a symbol or type with the symbol solver. Every call to {@code resolve()} or {@code
+   * calculateResolvedType()} of a node, and every inspection of the declarations and types it
+   * returns, needs to go through here, as they may lazily resolve further types. See {@link
+   * JavaTypeSolverCache#resolve}.
+   */
+  public <T> T resolve(Supplier<T> resolution) {
+    return typeSolvers.resolve(resolution);
+  }
+
+  /**
+   * Checks whether the resolution with the given key already failed, see {@link
+   * #getUnresolvedKey(Type)}.
+   */
+  boolean isUnresolved(@Nullable String key) {
+    return key != null && typeSolvers.isUnresolved(key);
+  }
+
+  private void markUnresolved(@Nullable String key) {
+    if (key != null) {
+      typeSolvers.markUnresolved(key);
+    }
+  }
+
+  /**
+   * Returns the key under which a failed resolution of the type is remembered, see {@link
+   * JavaTypeSolverCache#isUnresolved(String)}. Types whose names, including those of their type
+   * arguments, are all imported by single type imports are resolved the same way in every file
+   * with the same imports. All other types are only remembered for the position of the node that
+   * declares them, e.g. their variable declarator.
+   *
+   * @return the key, or null if failures of the type must not be remembered, e.g. for {@code var}
+   *     whose type is inferred from its initializer
+   */
+  @Nullable
+  String getUnresolvedKey(Type type) {
+    if (type instanceof VarType || type instanceof UnknownType) {
+      return null;
+    }
+    String name = type.asString();
+    StringBuilder imports = new StringBuilder("import ");
+    for (ClassOrInterfaceType named : type.findAll(ClassOrInterfaceType.class)) {
+      // qualified names, e.g. Map.Entry, are resolved through their outermost scope
+      if (named.getScope().isPresent()) {
+        continue;
+      }
+      String imported = getQualifiedNameFromImports(named.getNameAsString());
+      if (imported == null) {
+        return getPositionKey(type.getParentNode().orElse(type), type);
+      }
+      imports.append(imported).append(' ');
+    }
+    if (imports.length() == "import ".length()) {
+      return getPositionKey(type.getParentNode().orElse(type), type);
+    }
+    return imports + name;
+  }
+
+  /**
+   * Returns the key under which a failed resolution of the method call is remembered. The result
+   * depends on the local variables that are visible, so calls are only remembered for their own
+   * position.
+   */
+  @Nullable
+  String getUnresolvedKey(MethodCallExpr callExpr) {
+    return getPositionKey(callExpr, callExpr);
+  }
+
+  /**
+   * Identifies a node by the file and position of its declaring node, or returns null if that has
+   * no position.
+   */
+  @Nullable
+  private String getPositionKey(Node declaring, Node node) {
+    String file = sourceCode != null ? sourceCode.getFile() : "";
+    return declaring.getBegin().map(p -> file + ":" + p + " " + node).orElse(null);
+  }
+
   private de.fraunhofer.aisec.cpg.graph.Type getTypeFromImportIfPossible(Type type) {
     Type searchType = type;
     while (searchType.isArrayType()) {
@@ -345,11 +479,10 @@ public class JavaLanguageFrontend extends LanguageFrontend {
 
     if (clazz != null) {
       // try to look for imports matching the name
-      for (ImportDeclaration importDeclaration : context.getImports()) {
-        if (importDeclaration.getName().getIdentifier().endsWith(clazz.getName().getIdentifier())) {
-          // TODO: handle type parameters
-          return new de.fraunhofer.aisec.cpg.graph.Type(importDeclaration.getNameAsString());
-        }
+      List<String> imported = importsByName.get(clazz.getName().getIdentifier());
+      if (imported != null) {
+        // TODO: handle type parameters
+        return new de.fraunhofer.aisec.cpg.graph.Type(imported.get(0));
       }
       return new de.fraunhofer.aisec.cpg.graph.Type(clazz.getNameAsString(), Origin.GUESSED);
     }
@@ -360,16 +493,14 @@ public class JavaLanguageFrontend extends LanguageFrontend {
 
   @Override
   public void cleanup() {
-    JavaParserFacade.clearInstances();
-
-    for (TypeSolver tr : internalTypeSolvers) {
-      if (tr != null && tr.getParent() != null) {
-        tr.setParent(null); // trying to help the garbagecollector a bit
-      }
+    if (typeSolvers != null) {
+      typeSolvers.release();
+      typeSolvers = null;
     }
 
     super.cleanup();
     context = null;
+    importsByName = new HashMap<>();
     expressionHandler = null;
     statementHandler = null;
     declarationHandler = null;
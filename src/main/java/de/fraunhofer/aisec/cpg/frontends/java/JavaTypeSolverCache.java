@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.frontends.java;
+
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.helpers.CommonPath;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type solvers of a translation, shared by all {@link JavaLanguageFrontend}s that take part in
+ * it. The solvers cache every type they have parsed or resolved, so sharing them avoids parsing
+ * and resolving the same dependencies again for every file.
+ *
+ * <p>Resolutions are serialized, see {@link #resolve(Supplier)}, so the solvers are never used
+ * concurrently. The caches are released when the last frontend using them is
+ * cleaned up, i.e. at the end of the translation.
+ */
+public class JavaTypeSolverCache {
+
+  private static final Logger log = LoggerFactory.getLogger(JavaTypeSolverCache.class);
+
+  private final JavaSymbolSolver symbolSolver;
+  // we store a reference here to clean them up later
+  private final Set<TypeSolver> internalTypeSolvers = new HashSet<>();
+
+  /** Keys of symbols and types that could not be resolved, see {@link #isUnresolved(String)}. */
+  private final Set<String> unresolved = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong cacheHits = new AtomicLong();
+
+  private int users = 0;
+
+  public JavaTypeSolverCache(TranslationConfiguration config) {
+    CombinedTypeSolver typeResolver = new CombinedTypeSolver();
+    internalTypeSolvers.add(typeResolver);
+    ReflectionTypeSolver reflectionTypeSolver = new ReflectionTypeSolver();
+    internalTypeSolvers.add(reflectionTypeSolver);
+    typeResolver.add(reflectionTypeSolver);
+    if (config != null) {
+      File root = config.getTopLevel();
+      if (root == null) {
+        root = CommonPath.commonPath(config.getSourceFiles());
+      }
+
+      if (root == null) {
+        log.warn("Could not determine source root for {}", config.getSourceFiles());
+      } else {
+        log.info("Source file root used for type solver: {}", root);
+        JavaParserTypeSolver javaParserTypeSolver = new JavaParserTypeSolver(root);
+        internalTypeSolvers.add(javaParserTypeSolver);
+        typeResolver.add(javaParserTypeSolver);
+      }
+    }
+    this.symbolSolver = new JavaSymbolSolver(typeResolver);
+  }
+
+  /**
+   * Checks whether a symbol or type already failed to resolve. Resolution failures are expensive,
+   * as the solver reports them with an exception, and the same missing dependencies fail over and
+   * over again.
+   *
+   * @param key the name of the symbol or type together with the context it is resolved in, see
+   *     {@link JavaLanguageFrontend#getUnresolvedKey}
+   * @return true, if the resolution should directly fall back to a guess
+   */
+  public boolean isUnresolved(String key) {
+    if (unresolved.contains(key)) {
+      cacheHits.incrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /** Remembers that a symbol or type could not be resolved. */
+  public void markUnresolved(String key) {
+    unresolved.add(key);
+  }
+
+  /** Returns the number of resolutions that were skipped, because they failed before. */
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /** Returns the number of distinct symbols and types that could not be resolved. */
+  public int getUnresolvedCount() {
+    return unresolved.size();
+  }
+
+  /**
+   * Runs a resolution with the solvers. Every resolution goes through the static, unsynchronized
+   * registry of facades in {@link JavaParserFacade#get}, which is shared with the solvers of all
+   * other translations in the JVM, so resolutions are serialized on it. Parsing a file and building
+   * its graph is not, so frontends that run in parallel only wait for each other while resolving.
+   */
+  <T> T resolve(Supplier<T> resolution) {
+    synchronized (JavaParserFacade.class) {
+      return resolution.get();
+    }
+  }
+
+  /**
+   * Returns the shared symbol solver. Every call must be paired with a call to {@link #release()}.
+   */
+  synchronized JavaSymbolSolver acquire() {
+    users++;
+    return symbolSolver;
+  }
+
+  /** Releases the caches of the solvers once they are no longer used by any frontend. */
+  synchronized void release() {
+    if (--users > 0) {
+      return;
+    }
+
+    log.debug(
+        "Skipped {} resolutions of {} unresolvable symbols and types",
+        cacheHits.get(),
+        unresolved.size());
+
+    synchronized (JavaParserFacade.class) {
+      removeFacades();
+    }
+
+    for (TypeSolver tr : internalTypeSolvers) {
+      if (tr != null && tr.getParent() != null) {
+        tr.setParent(null); // trying to help the garbagecollector a bit
+      }
+    }
+  }
+
+  /**
+   * Removes the facades of our solvers from the registry of {@link JavaParserFacade}, leaving the
+   * facades of other translations alone, which {@link JavaParserFacade#clearInstances()} would
+   * drop as well. A facade references its solver, so the weak keys of the registry never release
+   * it by themselves. The registry is not accessible otherwise, so if its field cannot be found,
+   * the facades are left in place.
+   */
+  private void removeFacades() {
+    try {
+      Field field = JavaParserFacade.class.getDeclaredField("instances");
+      field.setAccessible(true);
+      Map<?, ?> instances = (Map<?, ?>) field.get(null);
+      instances.keySet().removeAll(internalTypeSolvers);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("Could not remove the facades of the type solvers", e);
+    }
+  }
+}
@@ -522,7 +522,8 @@ public class StatementAnalyzer
     ExplicitConstructorInvocationStmt eciStatement = stmt.asExplicitConstructorInvocationStmt();
     String containingClass;
     try {
-      containingClass = eciStatement.resolve().declaringType().getQualifiedName();
+      containingClass =
+          lang.resolve(() -> eciStatement.resolve().declaringType().getQualifiedName());
     } catch (RuntimeException | NoClassDefFoundError e) {
       containingClass = lang.recoverTypeFromUnsolvedException(e);
       // base can be null here
@@ -45,7 +45,7 @@ public class ConstructorDeclaration extends MethodDeclaration {
 
     c.name = functionDeclaration.getName();
     c.body = functionDeclaration.getBody();
-    c.code = functionDeclaration.getCode();
+    c.code = functionDeclaration.code;
     c.region = functionDeclaration.getRegion();
     c.parameters = functionDeclaration.getParameters();
 
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.graph;
+
+import de.fraunhofer.aisec.cpg.TranslationResult;
+import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An index of the declarations of a translation that the passes look up by name, i.e. records,
+ * enums and functions that are declared at namespace scope. It is built from all translation units
+ * when it is first requested, see {@link TranslationResult#getDeclarationIndex()}, and is kept up
+ * to date when passes create stubs for unknown types.
+ *
+ * <p>Lookups of records and enums by name return the first declaration with that name, in the order
+ * of the translation units. Functions are indexed by their qualified name, i.e. the names of their
+ * enclosing namespaces and their own name joined by {@code .}, like {@link
+ * CallExpression#getFqn()}.
+ */
+public class DeclarationIndex {
+
+  /** The name of the translation unit that holds the stubs of unknown types. */
+  public static final String UNKNOWN_DECLARATIONS = "unknown declarations";
+
+  private final TranslationResult result;
+
+  private final List<RecordDeclaration> records = new ArrayList<>();
+  private final Map<String, RecordDeclaration> recordsByName = new HashMap<>();
+  private final List<EnumDeclaration> enums = new ArrayList<>();
+  private final Map<String, EnumDeclaration> enumsByName = new HashMap<>();
+  private final Map<String, List<FunctionDeclaration>> functionsByName = new LinkedHashMap<>();
+  /** The first record or enum of each name, in the order of the translation units and ASTs. */
+  private final Map<String, Declaration> recordsOrEnumsByName = new HashMap<>();
+
+  @Nullable private TranslationUnitDeclaration unknownDeclarations;
+
+  public DeclarationIndex(TranslationResult result) {
+    this.result = result;
+    for (TranslationUnitDeclaration tu : result.getTranslationUnits()) {
+      if (UNKNOWN_DECLARATIONS.equals(tu.getName())) {
+        unknownDeclarations = tu;
+      }
+      SubgraphWalker.preOrder(tu).forEach(this::add);
+      addFunctions(tu.getDeclarations(), "");
+    }
+  }
+
+  private void addFunctions(List<Declaration> declarations, String prefix) {
+    for (Declaration declaration : declarations) {
+      if (declaration instanceof NamespaceDeclaration) {
+        addFunctions(
+            ((NamespaceDeclaration) declaration).getDeclarations(),
+            prefix + declaration.getName() + ".");
+      } else if (declaration instanceof FunctionDeclaration
+          && !(declaration instanceof MethodDeclaration)) {
+        functionsByName
+            .computeIfAbsent(
+                prefix + declaration.getName().replace("::", "."), n -> new ArrayList<>())
+            .add((FunctionDeclaration) declaration);
+      }
+    }
+  }
+
+  private void add(Node node) {
+    if (node instanceof RecordDeclaration) {
+      records.add((RecordDeclaration) node);
+      recordsByName.putIfAbsent(node.getName(), (RecordDeclaration) node);
+      recordsOrEnumsByName.putIfAbsent(node.getName(), (RecordDeclaration) node);
+    } else if (node instanceof EnumDeclaration) {
+      enums.add((EnumDeclaration) node);
+      enumsByName.putIfAbsent(node.getName(), (EnumDeclaration) node);
+      recordsOrEnumsByName.putIfAbsent(node.getName(), (EnumDeclaration) node);
+    }
+  }
+
+  /** Returns all records, including records with the same name and stubs of unknown types. */
+  public synchronized List<RecordDeclaration> getRecords() {
+    return List.copyOf(records);
+  }
+
+  @Nullable
+  public synchronized RecordDeclaration getRecord(String name) {
+    return recordsByName.get(name);
+  }
+
+  /** Returns all enums, including enums with the same name. */
+  public synchronized List<EnumDeclaration> getEnums() {
+    return List.copyOf(enums);
+  }
+
+  @Nullable
+  public synchronized EnumDeclaration getEnum(String name) {
+    return enumsByName.get(name);
+  }
+
+  /**
+   * Returns the first record or enum with the given name. If both a record and an enum have that
+   * name, the one that comes first in the translation units wins.
+   */
+  @Nullable
+  public synchronized Declaration getRecordOrEnum(String name) {
+    return recordsOrEnumsByName.get(name);
+  }
+
+  /** Returns all functions at namespace scope, grouped by their qualified name. */
+  public synchronized List<FunctionDeclaration> getFunctions() {
+    return functionsByName.values().stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /** Returns the qualified names of all functions at namespace scope. */
+  public synchronized List<String> getFunctionNames() {
+    return List.copyOf(functionsByName.keySet());
+  }
+
+  /**
+   * Returns the functions at namespace scope with the given qualified name, including prototypes
+   * and functions with internal linkage.
+   */
+  public synchronized List<FunctionDeclaration> getFunctions(String qualifiedName) {
+    return List.copyOf(functionsByName.getOrDefault(qualifiedName, List.of()));
+  }
+
+  /**
+   * Returns the record with the given name. If there is none, a stub record is created for the
+   * unknown type and added to the translation unit of unknown declarations. All passes share the
+   * same stub for a type.
+   *
+   * @param name the name of the type
+   * @return the record or its stub
+   */
+  public synchronized RecordDeclaration getOrCreateStub(String name) {
+    RecordDeclaration record = recordsByName.get(name);
+    if (record == null) {
+      record = NodeBuilder.newRecordDeclaration(name, Collections.emptyList(), "class", "");
+      if (unknownDeclarations == null) {
+        unknownDeclarations = NodeBuilder.newTranslationUnitDeclaration(UNKNOWN_DECLARATIONS, "");
+        unknownDeclarations.setDummy(true);
+        result.getTranslationUnits().add(unknownDeclarations);
+      }
+      unknownDeclarations.add(record);
+      add(record);
+    }
+    return record;
+  }
+}
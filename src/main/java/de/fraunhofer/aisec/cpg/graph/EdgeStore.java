@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.graph;
+
+import de.fraunhofer.aisec.cpg.helpers.NodeMap;
+import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A compact, read-only store for the EOG, CFG and DFG edges of a finished graph. The edges of each
+ * kind are kept in compressed sparse row form: the targets of all nodes are stored in one int
+ * array, and a second array holds the offset of the first target of each node.
+ *
+ * <p>After {@link #freeze(Collection)}, the edge collections of the nodes are replaced by
+ * read-only views into the store and any attempt to modify them throws an {@link
+ * UnsupportedOperationException}.
+ */
+public class EdgeStore {
+
+  /** All nodes of the frozen graph, indexed by their position in the store. */
+  private final Node[] nodes;
+
+  private EdgeStore(Node[] nodes) {
+    this.nodes = nodes;
+  }
+
+  /**
+   * Moves the EOG, CFG and DFG edges of all nodes reachable from the given roots into a compact
+   * store. This should only be done once all passes have finished.
+   *
+   * @param roots the roots of the graph, usually the translation units
+   */
+  public static void freeze(Collection<? extends Node> roots) {
+    // index all AST nodes as well as all nodes that are only reachable through edges
+    Map<Node, Integer> index = new NodeMap<>();
+    List<Node> nodes = new ArrayList<>();
+    for (Node root : roots) {
+      SubgraphWalker.preOrder(root).forEach(node -> add(node, index, nodes));
+    }
+    for (int i = 0; i < nodes.size(); i++) {
+      Node node = nodes.get(i);
+      node.prevEOG.forEach(n -> add(n, index, nodes));
+      node.nextEOG.forEach(n -> add(n, index, nodes));
+      node.nextCFG.forEach(n -> add(n, index, nodes));
+      node.prevDFG.forEach(n -> add(n, index, nodes));
+      node.nextDFG.forEach(n -> add(n, index, nodes));
+    }
+
+    EdgeStore store = new EdgeStore(nodes.toArray(new Node[0]));
+    Edges prevEOG = store.new Edges(n -> n.prevEOG, index);
+    Edges nextEOG = store.new Edges(n -> n.nextEOG, index);
+    Edges nextCFG = store.new Edges(n -> n.nextCFG, index);
+    Edges prevDFG = store.new Edges(n -> n.prevDFG, index);
+    Edges nextDFG = store.new Edges(n -> n.nextDFG, index);
+
+    for (int i = 0; i < store.nodes.length; i++) {
+      Node node = store.nodes[i];
+      node.prevEOG = prevEOG.list(i);
+      node.nextEOG = nextEOG.list(i);
+      node.nextCFG = nextCFG.list(i);
+      node.prevDFG = prevDFG.set(i);
+      node.nextDFG = nextDFG.set(i);
+    }
+  }
+
+  private static void add(Node node, Map<Node, Integer> index, List<Node> nodes) {
+    if (node != null && !index.containsKey(node)) {
+      index.put(node, nodes.size());
+      nodes.add(node);
+    }
+  }
+
+  /** The edges of one kind in compressed sparse row form. */
+  private class Edges {
+
+    /** The targets of node i are stored in {@code targets[offsets[i]..offsets[i + 1]]}. */
+    private final int[] offsets;
+
+    private final int[] targets;
+
+    Edges(Function<Node, Collection<Node>> edges, Map<Node, Integer> index) {
+      offsets = new int[nodes.length + 1];
+      int count = 0;
+      for (int i = 0; i < nodes.length; i++) {
+        offsets[i] = count;
+        for (Node target : edges.apply(nodes[i])) {
+          if (target != null) {
+            count++;
+          }
+        }
+      }
+      offsets[nodes.length] = count;
+
+      targets = new int[count];
+      int position = 0;
+      for (Node node : nodes) {
+        for (Node target : edges.apply(node)) {
+          if (target != null) {
+            targets[position++] = index.get(target);
+          }
+        }
+      }
+    }
+
+    List<Node> list(int node) {
+      return offsets[node] == offsets[node + 1]
+          ? Collections.emptyList()
+          : new EdgeList(this, offsets[node], offsets[node + 1]);
+    }
+
+    Set<Node> set(int node) {
+      return offsets[node] == offsets[node + 1]
+          ? Collections.emptySet()
+          : new EdgeSet(this, offsets[node], offsets[node + 1]);
+    }
+  }
+
+  /** A read-only list view of the targets of one node. */
+  private class EdgeList extends AbstractList<Node> implements RandomAccess {
+
+    private final Edges edges;
+    private final int from;
+    private final int to;
+
+    EdgeList(Edges edges, int from, int to) {
+      this.edges = edges;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Node get(int i) {
+      if (i < 0 || i >= to - from) {
+        throw new IndexOutOfBoundsException(i);
+      }
+      return nodes[edges.targets[from + i]];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  /** A read-only set view of the targets of one node, comparing nodes by identity. */
+  private class EdgeSet extends AbstractSet<Node> {
+
+    private final Edges edges;
+    private final int from;
+    private final int to;
+
+    EdgeSet(Edges edges, int from, int to) {
+      this.edges = edges;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      for (int i = from; i < to; i++) {
+        if (nodes[edges.targets[i]] == o) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+      return new Iterator<>() {
+        private int next = from;
+
+        @Override
+        public boolean hasNext() {
+          return next < to;
+        }
+
+        @Override
+        public Node next() {
+          if (next >= to) {
+            throw new NoSuchElementException();
+          }
+          return nodes[edges.targets[next++]];
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+}
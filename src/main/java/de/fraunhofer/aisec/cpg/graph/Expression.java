@@ -29,6 +29,7 @@ package de.fraunhofer.aisec.cpg.graph;
 import de.fraunhofer.aisec.cpg.helpers.TypeConverter;
 import de.fraunhofer.aisec.cpg.helpers.TypeSetConverter;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -85,9 +86,7 @@ public class Expression extends Statement implements HasType {
     setPossibleSubTypes(subTypes);
 
     if (!Objects.equals(oldType, type)) {
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.typeChanged(this, oldType));
+      TypePropagation.getInstance().typeChanged(this, oldType);
     }
   }
 
@@ -105,9 +104,7 @@ public class Expression extends Statement implements HasType {
     Set<Type> oldSubTypes = this.possibleSubTypes;
 
     if (this.possibleSubTypes.addAll(possibleSubTypes)) {
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.possibleSubTypesChanged(this, oldSubTypes));
+      TypePropagation.getInstance().possibleSubTypesChanged(this, oldSubTypes);
     }
   }
 
@@ -122,23 +119,16 @@ public class Expression extends Statement implements HasType {
     possibleSubTypes = new HashSet<>();
 
     if (!Objects.equals(oldType, type)) {
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.typeChanged(this, oldType));
+      TypePropagation.getInstance().typeChanged(this, oldType);
     }
     if (oldSubTypes.size() != 1 || !oldSubTypes.contains(type))
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.possibleSubTypesChanged(this, oldSubTypes));
+      TypePropagation.getInstance().possibleSubTypesChanged(this, oldSubTypes);
   }
 
   @Override
   public void registerTypeListener(TypeListener listener) {
     this.typeListeners.add(listener);
-    if (shouldBeNotified(listener)) {
-      listener.typeChanged(this, this.type);
-      listener.possibleSubTypesChanged(this, this.possibleSubTypes);
-    }
+    TypePropagation.getInstance().registered(this, listener);
   }
 
   @Override
@@ -153,13 +143,7 @@ public class Expression extends Statement implements HasType {
 
   @Override
   public void refreshType() {
-    this.typeListeners.stream()
-        .filter(this::shouldBeNotified)
-        .forEach(
-            l -> {
-              l.typeChanged(this, type);
-              l.possibleSubTypesChanged(this, possibleSubTypes);
-            });
+    TypePropagation.getInstance().refresh(List.of(this));
   }
 
   @Override
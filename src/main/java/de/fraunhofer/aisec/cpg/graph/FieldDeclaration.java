@@ -51,7 +51,7 @@ public class FieldDeclaration extends ValueDeclaration implements TypeListener {
 
   private FieldDeclaration(VariableDeclaration declaration) {
     this.name = declaration.getName();
-    this.code = declaration.getCode();
+    this.code = declaration.code;
     this.region = declaration.getRegion();
     this.type = declaration.getType();
     this.initializer = declaration.getInitializer();
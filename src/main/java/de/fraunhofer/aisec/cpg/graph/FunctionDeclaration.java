@@ -59,6 +59,18 @@ public class FunctionDeclaration extends ValueDeclaration {
   @org.neo4j.ogm.annotation.Relationship(value = "OVERRIDES", direction = "OUTGOING")
   private List<FunctionDeclaration> overrides = new ArrayList<>();
 
+  /**
+   * The declaration of this function that has a body, if this declaration is only a prototype. The
+   * definition may be located in another translation unit.
+   */
+  private FunctionDeclaration definition;
+
+  /**
+   * Whether this function is only visible in its own translation unit, e.g. a {@code static}
+   * function in C.
+   */
+  private boolean internalLinkage;
+
   public boolean hasBody() {
     return this.body != null;
   }
@@ -116,6 +128,22 @@ public class FunctionDeclaration extends ValueDeclaration {
     return overrides;
   }
 
+  public FunctionDeclaration getDefinition() {
+    return definition;
+  }
+
+  public void setDefinition(FunctionDeclaration definition) {
+    this.definition = definition;
+  }
+
+  public boolean hasInternalLinkage() {
+    return internalLinkage;
+  }
+
+  public void setInternalLinkage(boolean internalLinkage) {
+    this.internalLinkage = internalLinkage;
+  }
+
   public List<Type> getThrowsTypes() {
     return throwsTypes;
   }
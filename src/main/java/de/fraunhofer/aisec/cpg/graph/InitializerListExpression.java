@@ -74,8 +74,7 @@ public class InitializerListExpression extends Expression implements TypeListene
     Type previous = this.type;
 
     Set<Type> types =
-        this.initializers
-            .parallelStream()
+        this.initializers.stream()
             .map(Expression::getType)
             .filter(Objects::nonNull)
             .map(
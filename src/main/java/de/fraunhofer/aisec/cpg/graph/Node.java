@@ -26,11 +26,12 @@
 
 package de.fraunhofer.aisec.cpg.graph;
 
+import de.fraunhofer.aisec.cpg.helpers.NodeSet;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -38,6 +39,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.neo4j.ogm.annotation.GeneratedValue;
 import org.neo4j.ogm.annotation.Id;
 import org.neo4j.ogm.annotation.Relationship;
+import org.neo4j.ogm.annotation.Transient;
 import org.neo4j.ogm.annotation.typeconversion.Convert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,11 +49,16 @@ public class Node {
 
   public static final ToStringStyle TO_STRING_STYLE = ToStringStyle.SHORT_PREFIX_STYLE;
   protected static final Logger log = LoggerFactory.getLogger(Node.class);
+
   /** A human readable name. */
   protected String name;
 
-  /** Original code snippet of this node. */
-  protected String code;
+  /**
+   * Original code snippet of this node. Frontends usually set a {@link SourceCode.Snippet}, which
+   * refers to the source code of the whole file instead of holding a copy.
+   */
+  @Convert(CodeConverter.class)
+  protected CharSequence code;
 
   /** Optional of this node. */
   protected String comment;
@@ -75,10 +82,10 @@ public class Node {
   protected List<Node> nextCFG = new ArrayList<>();
 
   @Relationship(value = "DFG", direction = "INCOMING")
-  protected Set<Node> prevDFG = new HashSet<>();
+  protected Set<Node> prevDFG = new NodeSet();
 
   @Relationship(value = "DFG")
-  protected Set<Node> nextDFG = new HashSet<>();
+  protected Set<Node> nextDFG = new NodeSet();
   /**
    * If a node is marked as being a dummy, it means that it was created artificially and does not
    * necessarily have a real counterpart in the actual source code
@@ -86,6 +93,14 @@ public class Node {
   protected boolean dummy = false;
   /** Required field for object graph mapping. It contains the node id. */
   @Id @GeneratedValue private Long id;
+  /**
+   * Dense id of this node, assigned in creation order by the {@link TypeManager} of its
+   * translation. In contrast to {@link #id}, it is available before the node is persisted and is
+   * used to key {@link NodeSet}s and {@link de.fraunhofer.aisec.cpg.helpers.NodeMap}s. It is not
+   * unique across translations, and nodes created outside of a translation share the ids of their
+   * thread.
+   */
+  @Transient private final int nodeId = TypeManager.getInstance().nextNodeId();
   /** Index of the argument if this node is used in a function call or parameter list. */
   private int argumentIndex;
 
@@ -93,6 +108,10 @@ public class Node {
     return id;
   }
 
+  public int getNodeId() {
+    return nodeId;
+  }
+
   public String getName() {
     return name;
   }
@@ -111,10 +130,20 @@ public class Node {
 
   @Nullable
   public String getCode() {
+    return this.code == null ? null : this.code.toString();
+  }
+
+  /**
+   * Returns the code of this node without copying it into a string, e.g. to compare or measure it.
+   *
+   * @return the code, usually a {@link SourceCode.Snippet}
+   */
+  @Nullable
+  public CharSequence getCodeSequence() {
     return this.code;
   }
 
-  public void setCode(String code) {
+  public void setCode(CharSequence code) {
     this.code = code;
   }
 
@@ -231,7 +260,7 @@ public class Node {
       return false;
     }
     return Objects.equals(name, node.name)
-        && Objects.equals(code, node.code)
+        && StringUtils.equals(code, node.code)
         && Objects.equals(comment, node.comment)
         && Objects.equals(region, node.region)
         && Objects.equals(file, node.file);
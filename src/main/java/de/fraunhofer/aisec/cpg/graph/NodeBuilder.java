@@ -348,7 +348,8 @@ public class NodeBuilder {
     return node;
   }
 
-  public static TranslationUnitDeclaration newTranslationUnitDeclaration(String name, String code) {
+  public static TranslationUnitDeclaration newTranslationUnitDeclaration(
+      String name, CharSequence code) {
     TranslationUnitDeclaration node = new TranslationUnitDeclaration();
     node.setName(name);
     node.setCode(code);
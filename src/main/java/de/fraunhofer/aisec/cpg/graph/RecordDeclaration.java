@@ -114,6 +114,7 @@ public class RecordDeclaration extends Declaration {
 
   public void setSuperTypes(List<Type> superTypes) {
     this.superTypes = superTypes;
+    TypeManager.getInstance().superTypesChanged(this);
   }
 
   public Set<RecordDeclaration> getSuperTypeDeclarations() {
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.graph;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The source code of one file, shared by all nodes that were created from it.
+ *
+ * <p>Instead of copying their code, nodes only hold a {@link Snippet}, i.e. a reference to this
+ * buffer and the offsets of their code in it. The actual string is only created when it is
+ * requested, see {@link Node#getCode()}.
+ */
+public class SourceCode {
+
+  private final String file;
+  private final String content;
+
+  /**
+   * Offsets at which the lines of the content start, computed on first use. The source code of a
+   * header may be shared by frontends running in parallel, which compute the same index.
+   */
+  @Nullable private volatile int[] lineStarts;
+
+  public SourceCode(String file, String content) {
+    this.file = file;
+    this.content = content;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public int length() {
+    return content.length();
+  }
+
+  public char charAt(int offset) {
+    return content.charAt(offset);
+  }
+
+  /** Returns the whole content as a {@link Snippet}. */
+  public CharSequence getSnippet() {
+    return getSnippet(0, content.length());
+  }
+
+  /**
+   * Returns a lazy view on a part of the content.
+   *
+   * @param start the offset of the first character, inclusive
+   * @param end the offset of the last character, exclusive
+   * @return the snippet or null, if the offsets are not within the content
+   */
+  @Nullable
+  public CharSequence getSnippet(int start, int end) {
+    if (start < 0 || end < start || end > content.length()) {
+      return null;
+    }
+    return new Snippet(this, start, end);
+  }
+
+  /**
+   * Converts a line and column to an offset in the content. Lines are separated by {@code \n},
+   * {@code \r\n} or {@code \r}.
+   *
+   * @param line the line, starting at 1
+   * @param column the column, starting at 1
+   * @return the offset or -1, if the line does not exist
+   */
+  public int getOffset(int line, int column) {
+    int[] starts = getLineStarts();
+    if (line < 1 || line > starts.length) {
+      return -1;
+    }
+    return starts[line - 1] + column - 1;
+  }
+
+  /**
+   * Returns the line that contains the given offset.
+   *
+   * @param offset the offset, between 0 and the length of the content
+   * @return the line, starting at 1
+   */
+  public int getLine(int offset) {
+    int[] starts = getLineStarts();
+    int line = Arrays.binarySearch(starts, offset);
+    // if the offset is not the start of a line, binarySearch returns -(index of next line) - 1
+    return line >= 0 ? line + 1 : -line - 1;
+  }
+
+  /**
+   * Returns the column of the given offset within its line.
+   *
+   * @param offset the offset, between 0 and the length of the content
+   * @return the column, starting at 1
+   */
+  public int getColumn(int offset) {
+    return offset - getLineStarts()[getLine(offset) - 1] + 1;
+  }
+
+  private int[] getLineStarts() {
+    int[] starts = lineStarts;
+    if (starts == null) {
+      starts = new int[16];
+      int lines = 1;
+      for (int i = 0; i < content.length(); i++) {
+        char c = content.charAt(i);
+        if (c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n') {
+          continue; // the line ends with the following \n
+        }
+        if (c == '\n' || c == '\r') {
+          if (lines == starts.length) {
+            starts = Arrays.copyOf(starts, lines * 2);
+          }
+          starts[lines++] = i + 1;
+        }
+      }
+      starts = Arrays.copyOf(starts, lines);
+      lineStarts = starts;
+    }
+    return starts;
+  }
+
+  /** A part of a {@link SourceCode}, which is only copied into a string on demand. */
+  public static final class Snippet implements CharSequence {
+
+    private final SourceCode source;
+    private final int start;
+    private final int end;
+
+    /**
+     * The string of the last {@link #toString()}. It is only softly referenced, so that the copies
+     * of large snippets do not stay in memory.
+     */
+    @Nullable private SoftReference<String> string;
+
+    private Snippet(SourceCode source, int start, int end) {
+      this.source = source;
+      this.start = start;
+      this.end = end;
+    }
+
+    public SourceCode getSource() {
+      return source;
+    }
+
+    public int getStart() {
+      return start;
+    }
+
+    public int getEnd() {
+      return end;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length()) {
+        throw new IndexOutOfBoundsException(index);
+      }
+      return source.content.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      if (from < 0 || to < from || to > length()) {
+        throw new IndexOutOfBoundsException();
+      }
+      return new Snippet(source, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      if (start == 0 && end == source.content.length()) {
+        return source.content;
+      }
+      SoftReference<String> cached = string;
+      String result = cached == null ? null : cached.get();
+      if (result == null) {
+        result = source.content.substring(start, end);
+        string = new SoftReference<>(result);
+      }
+      return result;
+    }
+  }
+}
@@ -46,6 +46,12 @@ public class TranslationUnitDeclaration extends Declaration {
   @SubGraph("AST")
   private List<Declaration> namespaces = new ArrayList<>();
 
+  /**
+   * Declarations of included headers that this unit shares with other units. They belong to the
+   * translation unit of their header, so they are not part of the AST of this unit.
+   */
+  private List<Declaration> sharedDeclarations = new ArrayList<>();
+
   public <T> T getDeclarationAs(int i, Class<T> clazz) {
     return clazz.cast(this.declarations.get(i));
   }
@@ -70,6 +76,10 @@ public class TranslationUnitDeclaration extends Declaration {
     return namespaces;
   }
 
+  public List<Declaration> getSharedDeclarations() {
+    return sharedDeclarations;
+  }
+
   public void add(Declaration decl) {
     if (decl instanceof IncludeDeclaration) {
       includes.add(decl);
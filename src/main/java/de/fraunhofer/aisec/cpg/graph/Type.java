@@ -26,14 +26,29 @@
 
 package de.fraunhofer.aisec.cpg.graph;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.neo4j.ogm.annotation.GeneratedValue;
 import org.neo4j.ogm.annotation.Id;
+import org.neo4j.ogm.annotation.PostLoad;
+import org.neo4j.ogm.annotation.Transient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The type of a declaration or expression.
+ *
+ * <p>The name, adjustment and modifier of a type are kept in an interned, immutable {@link Key}
+ * that is shared by all types with the same components. Parsing a type from a string is cached per
+ * raw string. The setters replace the key of this type only, i.e., they copy on write and never
+ * affect other types. The components are also stored in plain fields, which are the properties
+ * persisted by the object graph mapper.
+ *
+ * <p>Types themselves are not shared, since they are mutable and persisted as nodes of their own.
+ */
 public class Type {
 
   public static final String UNKNOWN_TYPE = "UNKNOWN";
@@ -41,15 +56,33 @@ public class Type {
   // Compile regex patterns once and for all.
   private static final Pattern DOUBLE_COLON = Pattern.compile("::");
   private static final Pattern START_WITH_BACKSLASH = Pattern.compile("\\*");
+  private static final Pattern STRUCT_PREFIX = Pattern.compile("^struct ");
+  private static final Pattern UNKNOWN_NAMESPACE = Pattern.compile("\\{.*}::");
+  private static final Pattern ARRAY_SIZE = Pattern.compile("\\[[ \\d]*]");
+  private static final Pattern FUNCTION_SIGNATURE = Pattern.compile("\\(.*\\)");
+  private static final Pattern FIRST_ADJUSTMENT = Pattern.compile("(\\[])|(\\*)");
   private static final Pattern TYPE_FROM_STRING =
       Pattern.compile(
           "(?:(?<modifier>[a-zA-Z]*) )?(?<type>[a-zA-Z0-9_$.<>]*)(?<adjustment>[\\[\\]*\\s]*)?");
+
+  /** Number of keys and parse results per generation of the caches, to keep memory in check. */
+  private static final int MAX_CACHED = 1 << 16;
+
+  private static final BoundedCache<Key, Key> KEYS = new BoundedCache<>();
+  private static final BoundedCache<String, Parsed> PARSED = new BoundedCache<>();
+
   /** The type of the declaration. */
   protected String type = UNKNOWN_TYPE;
   /** Specifies whether this node has any type adjustments, such as a pointer or reference. */
   protected String typeAdjustment = "";
   /** Specifies whether this node has any type modifiers, such as const, final, ... */
   protected String typeModifier = "";
+
+  /**
+   * The interned components of this type. Not persisted, since the object graph mapper only sets
+   * the plain fields when loading a type, see {@link #restoreKey()}.
+   */
+  @Transient private Key key = intern(type, typeAdjustment, typeModifier);
   /** Where does this type come from? Provided by a symbol solver, guessed from imports etc? */
   protected Origin typeOrigin = Origin.UNRESOLVED;
 
@@ -61,7 +94,7 @@ public class Type {
 
   public Type(String type, String typeAdjustment) {
     this(type);
-    this.typeAdjustment = typeAdjustment;
+    setTypeAdjustment(typeAdjustment);
   }
 
   public Type(String type, String typeAdjustment, Origin typeOrigin) {
@@ -75,9 +108,7 @@ public class Type {
   }
 
   public Type(Type src) {
-    this.type = src.type;
-    this.typeAdjustment = src.typeAdjustment;
-    this.typeModifier = src.typeModifier;
+    setKey(src.key);
     this.typeOrigin = src.typeOrigin;
   }
 
@@ -85,23 +116,59 @@ public class Type {
     return new Type("UNKNOWN");
   }
 
+  private static Key intern(String name, String adjustment, String modifier) {
+    Key key = new Key(name, adjustment, modifier);
+    Key interned = KEYS.get(key);
+    return interned != null ? interned : KEYS.putIfAbsent(key, key);
+  }
+
+  private void setKey(Key key) {
+    this.key = key;
+    this.type = key.name;
+    this.typeAdjustment = key.adjustment;
+    this.typeModifier = key.modifier;
+  }
+
+  /** Interns the components again after the object graph mapper has set the plain fields. */
+  @PostLoad
+  private void restoreKey() {
+    setKey(intern(type, typeAdjustment, typeModifier));
+  }
+
   private static String clean(String type) {
     if (type.contains("?")
         || type.contains("org.eclipse.cdt.internal.core.dom.parser.ProblemType@")) {
       return UNKNOWN_TYPE;
     }
-    type = type.replaceAll("^struct ", "");
+    type = STRUCT_PREFIX.matcher(type).replaceAll("");
     // remove artifacts from unidentified C++ namespaces
-    type = type.replaceAll("\\{.*}::", "");
+    type = UNKNOWN_NAMESPACE.matcher(type).replaceAll("");
     // remove irrelevant array sizes cluttering the type name
-    type = type.replaceAll("\\[[ \\d]*]", "[]");
+    type = ARRAY_SIZE.matcher(type).replaceAll("[]");
     // remove function signature info
-    type = type.replaceAll("\\(.*\\)", "");
+    type = FUNCTION_SIGNATURE.matcher(type).replaceAll("");
     // unify separator
     type = type.replace("::", ".");
     return type.strip();
   }
 
+  private static Parsed parse(String string) {
+    String cleaned = clean(string);
+    Matcher matcher = TYPE_FROM_STRING.matcher(cleaned);
+    if (matcher.matches()) {
+      String typeName = matcher.group("type");
+      String adjustment = matcher.group("adjustment");
+      adjustment = adjustment == null ? "" : adjustment.replace(" ", "");
+      String modifier = matcher.group("modifier");
+      modifier = modifier == null ? "" : modifier;
+
+      return new Parsed(intern(typeName, adjustment, modifier), true);
+    } else {
+      LOGGER.warn("Type regex does not match for {} (cleaned version of {})", cleaned, string);
+      return new Parsed(intern(cleaned, "", ""), false);
+    }
+  }
+
   public static Type createFrom(String string) {
     Type t = getUnknown();
     t.setFrom(string);
@@ -113,30 +180,24 @@ public class Type {
   }
 
   public void setTypeName(String type) {
-    this.type = type;
+    setKey(intern(type, typeAdjustment, typeModifier));
   }
 
   public void setFrom(String string) {
-    String cleaned = clean(string);
-    Matcher matcher = TYPE_FROM_STRING.matcher(cleaned);
-    if (matcher.matches()) {
-      String typeName = matcher.group("type");
-      String adjustment = matcher.group("adjustment");
-      adjustment = adjustment == null ? "" : adjustment.replace(" ", "");
-      String modifier = matcher.group("modifier");
-      modifier = modifier == null ? "" : modifier;
+    Parsed parsed = PARSED.get(string);
+    if (parsed == null) {
+      parsed = PARSED.putIfAbsent(string, parse(string));
+    }
 
-      setTypeName(typeName);
-      setTypeAdjustment(adjustment);
-      setTypeModifier(modifier);
+    if (parsed.matched) {
+      setKey(parsed.key);
     } else {
-      LOGGER.warn("Type regex does not match for {} (cleaned version of {})", cleaned, string);
-      setTypeName(cleaned);
+      setTypeName(parsed.key.name);
     }
   }
 
   public boolean hasTypeAdjustment() {
-    return this.typeAdjustment != null;
+    return typeAdjustment != null;
   }
 
   public String getTypeAdjustment() {
@@ -144,7 +205,7 @@ public class Type {
   }
 
   public void setTypeAdjustment(String typeAdjustment) {
-    this.typeAdjustment = typeAdjustment;
+    setKey(intern(type, typeAdjustment, typeModifier));
   }
 
   public Origin getTypeOrigin() {
@@ -156,12 +217,12 @@ public class Type {
   }
 
   public Type reference() {
-    return new Type(this.type, "*" + this.typeAdjustment);
+    return new Type(getTypeName(), "*" + getTypeAdjustment());
   }
 
   public Type dereference() {
     // dereferencing an array results in basically the same as with a pointer
-    return new Type(this.type, this.typeAdjustment.replaceFirst("(\\[])|(\\*)", ""));
+    return new Type(getTypeName(), FIRST_ADJUSTMENT.matcher(getTypeAdjustment()).replaceFirst(""));
   }
 
   public String toString() {
@@ -179,25 +240,16 @@ public class Type {
 
   @Override
   public boolean equals(Object other) {
-    return other instanceof Type
-        && Objects.equals(((Type) other).type, this.type)
-        && Objects.equals(((Type) other).typeModifier, this.typeModifier)
-        && Objects.equals(((Type) other).typeAdjustment, this.typeAdjustment);
+    if (!(other instanceof Type)) {
+      return false;
+    }
+    Key otherKey = ((Type) other).key;
+    return otherKey == key || otherKey.equals(key);
   }
 
   @Override
   public int hashCode() {
-    int ret = 0;
-    if (type != null) {
-      ret += 17 * type.hashCode();
-    }
-    if (hasTypeModifier()) {
-      ret += 17 * typeModifier.hashCode();
-    }
-    if (hasTypeAdjustment()) {
-      ret += 19 * typeAdjustment.hashCode();
-    }
-    return ret;
+    return key.hashCode();
   }
 
   public boolean hasTypeModifier() {
@@ -209,7 +261,7 @@ public class Type {
   }
 
   public void setTypeModifier(String typeModifier) {
-    this.typeModifier = typeModifier;
+    setKey(intern(type, typeAdjustment, typeModifier));
   }
 
   public enum Origin {
@@ -218,4 +270,93 @@ public class Type {
     GUESSED,
     UNRESOLVED
   }
+
+  /** The immutable components of a type. */
+  private static final class Key {
+
+    private final String name;
+    private final String adjustment;
+    private final String modifier;
+    private final int hash;
+
+    private Key(String name, String adjustment, String modifier) {
+      this.name = name;
+      this.adjustment = adjustment;
+      this.modifier = modifier;
+      this.hash = Objects.hash(name, adjustment, modifier);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return hash == other.hash
+          && Objects.equals(name, other.name)
+          && Objects.equals(adjustment, other.adjustment)
+          && Objects.equals(modifier, other.modifier);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /** The cached result of parsing a type from a string. */
+  private static final class Parsed {
+
+    private final Key key;
+    /** False, if only the name could be determined, see {@link #setFrom(String)}. */
+    private final boolean matched;
+
+    private Parsed(Key key, boolean matched) {
+      this.key = key;
+      this.matched = matched;
+    }
+  }
+
+  /**
+   * A concurrent cache of at most two generations with {@link #MAX_CACHED} entries each. Once the
+   * current generation is full, it replaces the old generation. Entries of the old generation are
+   * copied into the current one when they are used, so frequently used entries are kept while the
+   * others are evicted.
+   */
+  private static final class BoundedCache<K, V> {
+
+    private volatile Map<K, V> current = new ConcurrentHashMap<>();
+    private volatile Map<K, V> old = new ConcurrentHashMap<>();
+
+    V get(K key) {
+      V value = current.get(key);
+      if (value == null) {
+        value = old.get(key);
+        if (value != null) {
+          value = putIfAbsent(key, value);
+        }
+      }
+      return value;
+    }
+
+    /** Adds an entry, unless there is one already. Returns the entry that is in the cache. */
+    V putIfAbsent(K key, V value) {
+      Map<K, V> map = current;
+      V existing = map.putIfAbsent(key, value);
+      if (map.size() > MAX_CACHED) {
+        rotate(map);
+      }
+      return existing != null ? existing : value;
+    }
+
+    private synchronized void rotate(Map<K, V> full) {
+      if (current == full) {
+        old = full;
+        current = new ConcurrentHashMap<>();
+      }
+    }
+  }
 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An index over the type hierarchy of a set of records. Super types are resolved by name once, and
+ * the ancestors of every record are precomputed as a sorted array, so that common super types and
+ * subtype relations can be answered without walking the hierarchy again.
+ *
+ * <p>The index is maintained incrementally. Records can be added, see {@link
+ * #add(RecordDeclaration)}, and whenever the super types of an indexed record change (see {@link
+ * RecordDeclaration#setSuperTypes(List)}), only the entries of that record and of the records
+ * inheriting from it are computed again, the next time the index is used.
+ */
+public class TypeHierarchy {
+
+  /** The type manager of the translation the records belong to. */
+  private final TypeManager typeManager = TypeManager.getInstance();
+
+  /** The number of super type changes of the translation that are applied to this index. */
+  private int version = typeManager.getSuperTypesVersion();
+
+  private final Map<String, Integer> indices = new HashMap<>();
+
+  private final List<RecordDeclaration> records = new ArrayList<>();
+
+  /** The names of the super types of each record, as they were when the record was linked. */
+  private final List<List<String>> superTypeNames = new ArrayList<>();
+
+  /** The indices of the direct super records of each record. */
+  private final List<int[]> parents = new ArrayList<>();
+
+  /** The indices of the records that directly inherit from each record. */
+  private final List<Set<Integer>> children = new ArrayList<>();
+
+  /** The records that inherit from a type without a record yet, by the name of that type. */
+  private final Map<String, Set<Integer>> unknownParents = new HashMap<>();
+
+  /** The indices of all ancestors of a record, including itself, in ascending order. */
+  private final List<int[]> ancestors = new ArrayList<>();
+
+  /** The length of the longest path from a record to a root of the hierarchy. */
+  private int[] levels = new int[16];
+
+  public TypeHierarchy(Collection<RecordDeclaration> records) {
+    List<Integer> added = new ArrayList<>();
+    for (RecordDeclaration record : records) {
+      Integer index = register(record);
+      if (index != null) {
+        added.add(index);
+      }
+    }
+    added.forEach(this::link);
+    recompute(added);
+  }
+
+  /**
+   * Adds a record to the index. A record with the same name as an indexed record is ignored.
+   *
+   * @param record the record
+   */
+  public synchronized void add(RecordDeclaration record) {
+    update();
+    Integer index = register(record);
+    if (index == null) {
+      return;
+    }
+    link(index);
+
+    // records that already inherited from the name of the new record now inherit from the record
+    List<Integer> affected = new ArrayList<>(List.of(index));
+    Set<Integer> inheritors = unknownParents.remove(record.getName());
+    if (inheritors != null) {
+      for (int inheritor : inheritors) {
+        unlink(inheritor);
+        link(inheritor);
+        affected.add(inheritor);
+      }
+    }
+    recompute(affected);
+  }
+
+  private Integer register(RecordDeclaration record) {
+    if (indices.putIfAbsent(record.getName(), records.size()) != null) {
+      return null;
+    }
+    records.add(record);
+    superTypeNames.add(List.of());
+    parents.add(new int[0]);
+    children.add(new HashSet<>());
+    ancestors.add(null);
+    if (levels.length < records.size()) {
+      levels = Arrays.copyOf(levels, levels.length * 2);
+    }
+    return records.size() - 1;
+  }
+
+  /** Resolves the super types of a record to the indexed records. */
+  private void link(int record) {
+    List<String> names = new ArrayList<>();
+    List<Integer> linked = new ArrayList<>();
+    for (Type superType : records.get(record).getSuperTypes()) {
+      String name = superType.getTypeName();
+      names.add(name);
+      Integer parent = indices.get(name);
+      if (parent == null) {
+        unknownParents.computeIfAbsent(name, n -> new HashSet<>()).add(record);
+      } else {
+        linked.add(parent);
+        children.get(parent).add(record);
+      }
+    }
+    superTypeNames.set(record, names);
+    parents.set(record, linked.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  /** Reverts {@link #link(int)}, before the super types of a record are resolved again. */
+  private void unlink(int record) {
+    for (String name : superTypeNames.get(record)) {
+      Integer parent = indices.get(name);
+      if (parent != null) {
+        children.get(parent).remove(record);
+      } else if (unknownParents.containsKey(name)) {
+        unknownParents.get(name).remove(record);
+      }
+    }
+  }
+
+  /** Computes the ancestors of the given records and of all records inheriting from them. */
+  private void recompute(Collection<Integer> changed) {
+    Set<Integer> affected = new LinkedHashSet<>();
+    Deque<Integer> worklist = new ArrayDeque<>(changed);
+    while (!worklist.isEmpty()) {
+      int record = worklist.poll();
+      if (affected.add(record)) {
+        worklist.addAll(children.get(record));
+      }
+    }
+    affected.forEach(record -> ancestors.set(record, null));
+
+    boolean[] visiting = new boolean[records.size()];
+    for (int record : affected) {
+      compute(record, visiting);
+    }
+  }
+
+  private void compute(int record, boolean[] visiting) {
+    if (ancestors.get(record) != null) {
+      return;
+    }
+    // guard against cyclic inheritance in broken code
+    visiting[record] = true;
+    List<int[]> parentAncestors = new ArrayList<>();
+    int count = 1;
+    int level = 0;
+    for (int parent : parents.get(record)) {
+      if (!visiting[parent]) {
+        compute(parent, visiting);
+        parentAncestors.add(ancestors.get(parent));
+        count += ancestors.get(parent).length;
+        level = Math.max(level, levels[parent] + 1);
+      }
+    }
+    visiting[record] = false;
+
+    int[] all = new int[count];
+    all[0] = record;
+    int position = 1;
+    for (int[] inherited : parentAncestors) {
+      System.arraycopy(inherited, 0, all, position, inherited.length);
+      position += inherited.length;
+    }
+    Arrays.sort(all);
+    ancestors.set(record, Arrays.stream(all).distinct().toArray());
+    levels[record] = level;
+  }
+
+  /** Applies the changes of super types that happened since the index was last used. */
+  private void update() {
+    List<RecordDeclaration> changes = typeManager.getSuperTypeChanges(version);
+    version += changes.size();
+
+    Set<Integer> changed = new LinkedHashSet<>();
+    for (RecordDeclaration record : changes) {
+      Integer index = indices.get(record.getName());
+      // changes of records of other indices of the translation are irrelevant
+      if (index != null && records.get(index) == record && changed.add(index)) {
+        unlink(index);
+        link(index);
+      }
+    }
+    if (!changed.isEmpty()) {
+      recompute(changed);
+    }
+  }
+
+  public synchronized Optional<RecordDeclaration> getRecord(String name) {
+    update();
+    Integer index = indices.get(name);
+    return index == null ? Optional.empty() : Optional.of(records.get(index));
+  }
+
+  /**
+   * Determines the deepest record that is an ancestor of all records denoting the given types.
+   * Types without a known record are ignored.
+   *
+   * @param types the types
+   * @return the common super record, if there is one
+   */
+  public synchronized Optional<RecordDeclaration> getCommonSuperRecord(Collection<Type> types) {
+    update();
+    int[] common = null;
+    for (Type type : types) {
+      Integer index = indices.get(type.getTypeName());
+      if (index != null) {
+        common = common == null ? ancestors.get(index) : intersect(common, ancestors.get(index));
+      }
+    }
+    if (common == null) {
+      return Optional.empty();
+    }
+
+    int deepest = -1;
+    for (int candidate : common) {
+      if (deepest < 0 || levels[candidate] > levels[deepest]) {
+        deepest = candidate;
+      }
+    }
+    return deepest < 0 ? Optional.empty() : Optional.of(records.get(deepest));
+  }
+
+  private static int[] intersect(int[] first, int[] second) {
+    int[] result = new int[Math.min(first.length, second.length)];
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < first.length && j < second.length) {
+      if (first[i] < second[j]) {
+        i++;
+      } else if (first[i] > second[j]) {
+        j++;
+      } else {
+        result[count++] = first[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+}
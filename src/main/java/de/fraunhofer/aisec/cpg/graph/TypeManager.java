@@ -27,38 +27,160 @@
 package de.fraunhofer.aisec.cpg.graph;
 
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
-import de.fraunhofer.aisec.cpg.passes.scopes.RecordScope;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Answers type related questions, such as the common supertype of a set of types.
+ *
+ * <p>A type manager belongs to exactly one translation (see {@link
+ * de.fraunhofer.aisec.cpg.TranslationResult#getTypeManager()}), so that independent translations
+ * can run side by side in one JVM. Graph nodes do not know which translation they belong to.
+ * Instead, the {@link de.fraunhofer.aisec.cpg.TranslationManager} binds the type manager of the
+ * current translation to every thread working on it, and {@link #getInstance()} returns the
+ * bound instance.
+ */
 public class TypeManager {
 
+  private static final Logger log = LoggerFactory.getLogger(TypeManager.class);
+
   private static final List<String> primitiveTypeNames =
       List.of("byte", "short", "int", "long", "float", "double", "boolean", "char");
-  private static TypeManager INSTANCE = new TypeManager();
 
-  private Map<String, RecordDeclaration> typeToRecord = new HashMap<>();
-  private LanguageFrontend frontend;
+  /** The type manager bound to the current thread, see {@link #setInstance(TypeManager)}. */
+  private static final ThreadLocal<TypeManager> CURRENT = new ThreadLocal<>();
+
+  /**
+   * The type manager of threads that are not working on behalf of a {@link
+   * de.fraunhofer.aisec.cpg.TranslationManager}, e.g. when a frontend is used on its own. It is
+   * shared by all of these threads.
+   */
+  private static final TypeManager DEFAULT = new TypeManager();
+
+  /** Whether the current thread already used the {@link #DEFAULT} instance, to only log it once. */
+  private static final ThreadLocal<Boolean> USES_DEFAULT = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * The frontend whose scopes are used to look up records. Frontends may run in parallel on
+   * different threads, so each thread sees the frontend it is currently working with.
+   */
+  private final ThreadLocal<LanguageFrontend> frontend = new ThreadLocal<>();
+
+  /** The next {@link Node#getNodeId()} of a node created for this translation. */
+  private final AtomicInteger nodeIds = new AtomicInteger();
+  private final AtomicInteger renamedDeclarations = new AtomicInteger();
+
+  /**
+   * The records of this translation whose super types changed, in the order of the changes. Each
+   * {@link TypeHierarchy} applies the changes it has not seen yet to its index.
+   */
+  private final List<RecordDeclaration> superTypeChanges = new ArrayList<>();
 
-  private TypeManager() {}
+  public TypeManager() {}
 
+  /**
+   * Returns the type manager of the translation the current thread is working on. Threads without
+   * a bound type manager get the shared default instance, which is logged once per thread, since
+   * independent translations using it would interfere with each other.
+   *
+   * @return the bound type manager or the default instance
+   */
   public static TypeManager getInstance() {
-    return INSTANCE;
+    TypeManager typeManager = CURRENT.get();
+    if (typeManager != null) {
+      return typeManager;
+    }
+    if (!USES_DEFAULT.get()) {
+      USES_DEFAULT.set(true);
+      log.warn(
+          "No type manager is bound to thread {}, using the default instance",
+          Thread.currentThread().getName());
+    }
+    return DEFAULT;
+  }
+
+  /**
+   * Binds a type manager to the current thread. Must be paired with {@link #clearInstance()} once
+   * the thread has finished its work on the translation.
+   *
+   * @param typeManager the type manager of the current translation
+   */
+  public static void setInstance(TypeManager typeManager) {
+    CURRENT.set(typeManager);
+  }
+
+  /** Removes the binding of the current thread that was established with {@link #setInstance}. */
+  public static void clearInstance() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Allocates the id of a new node of this translation, so that the ids of a translation stay
+   * dense no matter how many translations ran before in the same JVM.
+   *
+   * @return the next node id
+   */
+  public int nextNodeId() {
+    return nodeIds.getAndIncrement();
+  }
+
+  void declarationRenamed() {
+    renamedDeclarations.incrementAndGet();
+  }
+
+  /**
+   * Returns the number of times a value declaration of this translation was renamed, so that
+   * indices of declarations by their name can tell whether they are outdated.
+   *
+   * @return the number of renames so far
+   */
+  public int getRenamedDeclarations() {
+    return renamedDeclarations.get();
+  }
+
+  void superTypesChanged(RecordDeclaration record) {
+    synchronized (superTypeChanges) {
+      superTypeChanges.add(record);
+    }
+  }
+
+  /** Returns the number of super type changes of this translation so far. */
+  int getSuperTypesVersion() {
+    synchronized (superTypeChanges) {
+      return superTypeChanges.size();
+    }
+  }
+
+  /**
+   * Returns the records whose super types changed since the given number of changes.
+   *
+   * @param version the number of changes that are already known
+   * @return the records that changed afterwards, in the order of the changes
+   */
+  List<RecordDeclaration> getSuperTypeChanges(int version) {
+    synchronized (superTypeChanges) {
+      return new ArrayList<>(superTypeChanges.subList(version, superTypeChanges.size()));
+    }
   }
 
   public void setLanguageFrontend(LanguageFrontend frontend) {
-    this.frontend = frontend;
+    this.frontend.set(frontend);
+  }
+
+  /**
+   * Returns the frontend that was set by the current thread.
+   *
+   * @return the frontend, might be null
+   */
+  public LanguageFrontend getLanguageFrontend() {
+    return this.frontend.get();
   }
 
   public boolean isPrimitive(Type type) {
@@ -82,57 +204,14 @@ public class TypeManager {
     } else if (types.size() == 1) {
       return Optional.of(types.iterator().next());
     }
-    typeToRecord =
-        frontend.getScopeManager()
-            .getUniqueScopesThat(RecordScope.class::isInstance, s -> s.getAstNode().getName())
-            .stream()
-            .map(s -> (RecordDeclaration) s.getAstNode())
-            .collect(Collectors.toMap(RecordDeclaration::getName, Function.identity()));
-
-    List<Set<Ancestor>> allAncestors =
-        types.stream()
-            .map(t -> typeToRecord.getOrDefault(t.getTypeName(), null))
-            .filter(Objects::nonNull)
-            .map(r -> getAncestors(r, 0))
-            .collect(Collectors.toList());
-
-    // normalize/reverse depth: roots start at 0, increasing on each level
-    for (Set<Ancestor> ancestors : allAncestors) {
-      Optional<Ancestor> farthest =
-          ancestors.stream().max(Comparator.comparingInt(Ancestor::getDepth));
-      if (farthest.isPresent()) {
-        int maxDepth = farthest.get().getDepth();
-        ancestors.forEach(a -> a.setDepth(maxDepth - a.getDepth()));
-      }
-    }
-
-    Set<Ancestor> commonAncestors = new HashSet<>();
-    for (int i = 0; i < allAncestors.size(); i++) {
-      if (i == 0) {
-        commonAncestors.addAll(allAncestors.get(i));
-      } else {
-        commonAncestors.retainAll(allAncestors.get(i));
-      }
-    }
-
-    Optional<Ancestor> lca =
-        commonAncestors.stream().max(Comparator.comparingInt(Ancestor::getDepth));
-    return lca.map(a -> new Type(a.getRecord().getName()));
-  }
-
-  private Set<Ancestor> getAncestors(RecordDeclaration record, int depth) {
-    if (record.getSuperTypes().isEmpty()) {
-      return Set.of(new Ancestor(record, depth));
+    LanguageFrontend lang = frontend.get();
+    if (lang == null || lang.getScopeManager() == null) {
+      return Optional.empty();
     }
-    Set<Ancestor> ancestors =
-        record.getSuperTypes().stream()
-            .map(s -> typeToRecord.getOrDefault(s.getTypeName(), null))
-            .filter(Objects::nonNull)
-            .map(s -> getAncestors(s, depth + 1))
-            .flatMap(Collection::stream)
-            .collect(Collectors.toSet());
-    ancestors.add(new Ancestor(record, depth));
-    return ancestors;
+    return lang.getScopeManager()
+        .getTypeHierarchy()
+        .getCommonSuperRecord(types)
+        .map(r -> new Type(r.getName()));
   }
 
   public boolean isSupertypeOf(Type superType, Type subType) {
@@ -171,54 +250,8 @@ public class TypeManager {
     }
   }
 
+  /** Releases the frontend that was set by the current thread. */
   public void cleanup() {
-    this.frontend = null;
-    this.typeToRecord.clear();
-  }
-
-  private class Ancestor {
-
-    private RecordDeclaration record;
-    private int depth;
-
-    public Ancestor(RecordDeclaration record, int depth) {
-      this.record = record;
-      this.depth = depth;
-    }
-
-    public RecordDeclaration getRecord() {
-      return record;
-    }
-
-    public int getDepth() {
-      return depth;
-    }
-
-    public void setDepth(int depth) {
-      this.depth = depth;
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(record);
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      if (obj instanceof Ancestor) {
-        return ((Ancestor) obj).getRecord().equals(this.getRecord())
-            && ((Ancestor) obj).getDepth() == this.getDepth();
-      } else {
-        return false;
-      }
-    }
-
-    @Override
-    public String toString() {
-      return new ToStringBuilder(this, Node.TO_STRING_STYLE)
-          .append("record", record.getName())
-          .append("depth", depth)
-          .toString();
-    }
+    this.frontend.remove();
   }
 }
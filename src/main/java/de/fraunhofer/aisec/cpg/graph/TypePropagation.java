@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.graph;
+
+import de.fraunhofer.aisec.cpg.graph.HasType.TypeListener;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Propagates type changes to {@link TypeListener}s using a worklist instead of nested callbacks.
+ *
+ * <p>Notifications are queued per source, listener and kind. If a source changes several times
+ * before a listener has been notified, the notifications are merged into one that carries the
+ * oldest previous value. Changes caused by a listener are queued as well, and the outermost change
+ * processes the queue until it is empty, i.e. until a fixpoint is reached. Deeply connected graphs
+ * therefore do not lead to deep call stacks or repeated re-entrant notifications.
+ *
+ * <p>Each thread has its own instance, as nodes are only modified by the thread that is working on
+ * them.
+ */
+public class TypePropagation {
+
+  private static final ThreadLocal<TypePropagation> CURRENT =
+      ThreadLocal.withInitial(TypePropagation::new);
+
+  /** Pending notifications and the previous value they carry, in the order they were queued. */
+  private final Map<Notification, Object> pending = new LinkedHashMap<>();
+
+  private boolean propagating = false;
+
+  private long notifications = 0;
+
+  private long iterations = 0;
+
+  public static TypePropagation getInstance() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Notifies all listeners of a source that its type has changed.
+   *
+   * @param src the source whose type has changed
+   * @param oldType the type before the change
+   */
+  public void typeChanged(HasType src, Type oldType) {
+    for (TypeListener listener : List.copyOf(src.getTypeListeners())) {
+      if (src.shouldBeNotified(listener)) {
+        enqueue(new Notification(src, listener, false), oldType);
+      }
+    }
+    propagate();
+  }
+
+  /**
+   * Notifies all listeners of a source that its possible sub types have changed.
+   *
+   * @param src the source whose possible sub types have changed
+   * @param oldSubTypes the possible sub types before the change
+   */
+  public void possibleSubTypesChanged(HasType src, Set<Type> oldSubTypes) {
+    for (TypeListener listener : List.copyOf(src.getTypeListeners())) {
+      if (src.shouldBeNotified(listener)) {
+        enqueue(new Notification(src, listener, true), oldSubTypes);
+      }
+    }
+    propagate();
+  }
+
+  /**
+   * Informs a newly registered listener about the current state of a source.
+   *
+   * @param src the source the listener was registered at
+   * @param listener the new listener
+   */
+  public void registered(HasType src, TypeListener listener) {
+    if (src.shouldBeNotified(listener)) {
+      enqueue(new Notification(src, listener, false), src.getType());
+      enqueue(new Notification(src, listener, true), src.getPossibleSubTypes());
+      propagate();
+    }
+  }
+
+  /**
+   * Re-sends the current state of all given sources to their listeners and propagates all
+   * resulting changes until a fixpoint is reached.
+   *
+   * @param sources the sources to refresh
+   */
+  public void refresh(Collection<? extends HasType> sources) {
+    boolean outermost = !propagating;
+    propagating = true;
+    try {
+      for (HasType src : sources) {
+        for (TypeListener listener : List.copyOf(src.getTypeListeners())) {
+          if (src.shouldBeNotified(listener)) {
+            enqueue(new Notification(src, listener, false), src.getType());
+            enqueue(new Notification(src, listener, true), src.getPossibleSubTypes());
+          }
+        }
+      }
+    } finally {
+      propagating = !outermost;
+    }
+    propagate();
+  }
+
+  private void enqueue(Notification notification, Object previous) {
+    notifications++;
+    // keep the oldest previous value, the listener has not seen any of the newer ones
+    pending.putIfAbsent(notification, previous);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void propagate() {
+    if (propagating) {
+      // the outermost call processes everything that is queued in the meantime
+      return;
+    }
+    propagating = true;
+    try {
+      while (!pending.isEmpty()) {
+        Iterator<Map.Entry<Notification, Object>> it = pending.entrySet().iterator();
+        Map.Entry<Notification, Object> next = it.next();
+        it.remove();
+        iterations++;
+
+        Notification notification = next.getKey();
+        if (notification.subTypes) {
+          notification.listener.possibleSubTypesChanged(
+              notification.src, (Set<Type>) next.getValue());
+        } else {
+          notification.listener.typeChanged(notification.src, (Type) next.getValue());
+        }
+      }
+    } catch (RuntimeException e) {
+      pending.clear();
+      throw e;
+    } finally {
+      propagating = false;
+    }
+  }
+
+  /** Returns the number of notifications that were queued on this thread, before merging. */
+  public long getNotifications() {
+    return notifications;
+  }
+
+  /** Returns the number of notifications that were delivered to listeners on this thread. */
+  public long getIterations() {
+    return iterations;
+  }
+
+  /** A notification of a listener about a change of a source, compared by identity. */
+  private static final class Notification {
+
+    private final HasType src;
+    private final TypeListener listener;
+    private final boolean subTypes;
+
+    private Notification(HasType src, TypeListener listener, boolean subTypes) {
+      this.src = src;
+      this.listener = listener;
+      this.subTypes = subTypes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Notification)) {
+        return false;
+      }
+      Notification other = (Notification) o;
+      return src == other.src && listener == other.listener && subTypes == other.subTypes;
+    }
+
+    @Override
+    public int hashCode() {
+      return (31 * System.identityHashCode(src) + System.identityHashCode(listener)) * 2
+          + (subTypes ? 1 : 0);
+    }
+  }
+}
@@ -47,6 +47,14 @@ public abstract class ValueDeclaration extends Declaration implements HasType {
 
   @Transient private Set<TypeListener> typeListeners = new HashSet<>();
 
+  @Override
+  public void setName(String name) {
+    if (this.name != null && !this.name.equals(name)) {
+      TypeManager.getInstance().declarationRenamed();
+    }
+    super.setName(name);
+  }
+
   @Override
   public Type getType() {
     return type;
@@ -71,9 +79,7 @@ public abstract class ValueDeclaration extends Declaration implements HasType {
     setPossibleSubTypes(subTypes);
 
     if (!Objects.equals(oldType, type)) {
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.typeChanged(this, oldType));
+      TypePropagation.getInstance().typeChanged(this, oldType);
     }
   }
 
@@ -88,23 +94,16 @@ public abstract class ValueDeclaration extends Declaration implements HasType {
     setPossibleSubTypes(new HashSet<>(List.of(type)));
 
     if (!Objects.equals(oldType, type)) {
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.typeChanged(this, oldType));
+      TypePropagation.getInstance().typeChanged(this, oldType);
     }
     if (oldSubTypes.size() != 1 || !oldSubTypes.contains(type))
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.possibleSubTypesChanged(this, oldSubTypes));
+      TypePropagation.getInstance().possibleSubTypesChanged(this, oldSubTypes);
   }
 
   @Override
   public void registerTypeListener(TypeListener listener) {
     typeListeners.add(listener);
-    if (shouldBeNotified(listener)) {
-      listener.typeChanged(this, this.type);
-      listener.possibleSubTypesChanged(this, this.possibleSubTypes);
-    }
+    TypePropagation.getInstance().registered(this, listener);
   }
 
   @Override
@@ -131,21 +130,13 @@ public abstract class ValueDeclaration extends Declaration implements HasType {
     Set<Type> oldSubTypes = this.possibleSubTypes;
 
     if (this.possibleSubTypes.addAll(possibleSubTypes)) {
-      this.typeListeners.stream()
-          .filter(this::shouldBeNotified)
-          .forEach(l -> l.possibleSubTypesChanged(this, oldSubTypes));
+      TypePropagation.getInstance().possibleSubTypesChanged(this, oldSubTypes);
     }
   }
 
   @Override
   public void refreshType() {
-    this.typeListeners.stream()
-        .filter(this::shouldBeNotified)
-        .forEach(
-            l -> {
-              l.typeChanged(this, type);
-              l.possibleSubTypesChanged(this, possibleSubTypes);
-            });
+    TypePropagation.getInstance().refresh(List.of(this));
   }
 
   @Override
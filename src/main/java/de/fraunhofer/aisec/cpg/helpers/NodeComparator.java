@@ -52,10 +52,12 @@ public class NodeComparator implements Comparator<Node> {
             Integer.compare(n1.getRegion().getEndColumn(), n2.getRegion().getEndColumn()))
         != 0) return -comparisonValue;
 
-    if (n1.getCode() == null && n2.getCode() == null) return 0;
-    if (n2.getCode() == null) return -1;
-    if (n1.getCode() == null) return 1;
+    CharSequence code1 = n1.getCodeSequence();
+    CharSequence code2 = n2.getCodeSequence();
+    if (code1 == null && code2 == null) return 0;
+    if (code2 == null) return -1;
+    if (code1 == null) return 1;
 
-    return Integer.compare(n2.getCode().length(), n1.getCode().length());
+    return Integer.compare(code2.length(), code1.length());
   }
 }
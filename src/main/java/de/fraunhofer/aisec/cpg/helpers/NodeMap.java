@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.helpers;
+
+import de.fraunhofer.aisec.cpg.graph.Node;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A map that uses {@link Node}s as keys and compares them by identity. Nodes are located by their
+ * {@link Node#getNodeId()} in an open addressing table, so that neither {@link Node#hashCode()} nor
+ * {@link Node#equals(Object)} is called. The ids only spread the nodes over the table, so nodes
+ * of different translations with the same id, or ids that wrapped around to negative values, are
+ * still told apart by identity. Iteration follows insertion order, which makes traversals based on
+ * this map deterministic. A null key is supported.
+ *
+ * @param <V> the type of the values
+ */
+public class NodeMap<V> extends AbstractMap<Node, V> {
+
+  /** Marks an empty slot in the table. */
+  private static final int EMPTY = 0;
+
+  /** Marks a slot in the table whose entry has been removed. */
+  private static final int DELETED = -1;
+
+  /**
+   * Stands in for the null key, so that it can be located like any other key. It is not a node, so
+   * that no node id is allocated for it.
+   */
+  private static final Object NULL_KEY = new Object();
+
+  private static final Object[] NO_KEYS = new Object[0];
+
+  /**
+   * Keys in insertion order, i.e. nodes or {@link #NULL_KEY}. Removed keys leave a null hole until
+   * the next rehash. The arrays are only allocated once the first key is added, since many maps,
+   * e.g. edge sets, stay empty.
+   */
+  private Object[] keys = NO_KEYS;
+
+  private Object[] values;
+
+  private final int initialCapacity;
+
+  /** Number of used positions in {@link #keys}, including holes. */
+  private int end;
+
+  private int size;
+
+  /** Maps the hashed node id to the position in {@link #keys} plus one. */
+  private int[] table = null;
+
+  private int modCount;
+
+  private Set<Node> keySet;
+
+  private Set<Map.Entry<Node, V>> entrySet;
+
+  public NodeMap() {
+    this(4);
+  }
+
+  public NodeMap(int expectedSize) {
+    initialCapacity = Math.max(4, expectedSize);
+  }
+
+  public NodeMap(Map<? extends Node, ? extends V> map) {
+    this(map.size());
+    putAll(map);
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    // every removed key leaves both a hole in the keys and a deleted slot in the table, so the
+    // load factor of the table, including deleted slots, stays at most 0.5 until the keys are full
+    table = new int[Integer.highestOneBit(capacity * 4 - 1)];
+    end = 0;
+    size = 0;
+  }
+
+  private static int hash(Object key) {
+    if (key == NULL_KEY) {
+      return 0;
+    }
+    int h = ((Node) key).getNodeId() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Locates the slot of a key in the table.
+   *
+   * @return the slot, or -1 if the key is not contained
+   */
+  private int slotOf(Object key) {
+    if (table == null || key != null && !(key instanceof Node)) {
+      return -1;
+    }
+    Object node = key == null ? NULL_KEY : key;
+    int mask = table.length - 1;
+    int slot = hash(node) & mask;
+    while (table[slot] != EMPTY) {
+      if (table[slot] != DELETED && keys[table[slot] - 1] == node) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void insert(Object node, int position) {
+    int mask = table.length - 1;
+    int slot = hash(node) & mask;
+    while (table[slot] != EMPTY) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = position + 1;
+  }
+
+  private void rehash() {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int oldEnd = end;
+    allocate(table == null ? initialCapacity : Math.max(4, (size + 1) * 2));
+    for (int i = 0; i < oldEnd; i++) {
+      if (oldKeys[i] != null) {
+        keys[end] = oldKeys[i];
+        values[end] = oldValues[i];
+        insert(oldKeys[i], end);
+        end++;
+      }
+    }
+    size = end;
+  }
+
+  private Node keyAt(int position) {
+    return keys[position] == NULL_KEY ? null : (Node) keys[position];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return slotOf(key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int slot = slotOf(key);
+    return slot < 0 ? null : (V) values[table[slot] - 1];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(Node key, V value) {
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      V old = (V) values[table[slot] - 1];
+      values[table[slot] - 1] = value;
+      return old;
+    }
+    if (table == null || end == keys.length) {
+      rehash();
+    }
+    Object node = key == null ? NULL_KEY : key;
+    keys[end] = node;
+    values[end] = value;
+    insert(node, end);
+    end++;
+    size++;
+    modCount++;
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    int slot = slotOf(key);
+    return slot < 0 ? null : removeSlot(slot);
+  }
+
+  @SuppressWarnings("unchecked")
+  private V removeSlot(int slot) {
+    int position = table[slot] - 1;
+    V old = (V) values[position];
+    keys[position] = null;
+    values[position] = null;
+    table[slot] = DELETED;
+    size--;
+    modCount++;
+    return old;
+  }
+
+  @Override
+  public void clear() {
+    if (end > 0) {
+      Arrays.fill(keys, 0, end, null);
+      Arrays.fill(values, 0, end, null);
+      Arrays.fill(table, EMPTY);
+      end = 0;
+      size = 0;
+      modCount++;
+    }
+  }
+
+  @Override
+  public Set<Node> keySet() {
+    if (keySet == null) {
+      keySet =
+          new AbstractSet<>() {
+            @Override
+            public Iterator<Node> iterator() {
+              return new PositionIterator<>() {
+                @Override
+                Node get(int position) {
+                  return keyAt(position);
+                }
+              };
+            }
+
+            @Override
+            public int size() {
+              return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+              return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+              int slot = slotOf(o);
+              if (slot < 0) {
+                return false;
+              }
+              removeSlot(slot);
+              return true;
+            }
+
+            @Override
+            public void clear() {
+              NodeMap.this.clear();
+            }
+          };
+    }
+    return keySet;
+  }
+
+  @Override
+  public Set<Map.Entry<Node, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet =
+          new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Node, V>> iterator() {
+              return new PositionIterator<>() {
+                @Override
+                Map.Entry<Node, V> get(int position) {
+                  return new Entry(position);
+                }
+              };
+            }
+
+            @Override
+            public int size() {
+              return size;
+            }
+
+            @Override
+            public void clear() {
+              NodeMap.this.clear();
+            }
+          };
+    }
+    return entrySet;
+  }
+
+  /** Iterates over the used positions of {@link #keys} in insertion order. */
+  private abstract class PositionIterator<T> implements Iterator<T> {
+
+    private int next = 0;
+    private int last = -1;
+    private int expectedModCount = modCount;
+
+    abstract T get(int position);
+
+    @Override
+    public boolean hasNext() {
+      while (next < end && keys[next] == null) {
+        next++;
+      }
+      return next < end;
+    }
+
+    @Override
+    public T next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = next++;
+      return get(last);
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0 || keys[last] == null) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeSlot(slotOf(keyAt(last)));
+      expectedModCount = modCount;
+    }
+  }
+
+  /** An entry that reads and writes through to the map. */
+  private class Entry implements Map.Entry<Node, V> {
+
+    private final int position;
+
+    Entry(int position) {
+      this.position = position;
+    }
+
+    @Override
+    public Node getKey() {
+      return keyAt(position);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue() {
+      return (V) values[position];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V setValue(V value) {
+      V old = (V) values[position];
+      values[position] = value;
+      return old;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return getKey() == e.getKey() && Objects.equals(getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+  }
+}
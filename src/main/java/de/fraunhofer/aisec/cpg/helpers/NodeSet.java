@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.helpers;
+
+import de.fraunhofer.aisec.cpg.graph.Node;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A set of {@link Node}s that compares its elements by identity and iterates over them in
+ * insertion order. See {@link NodeMap} for details.
+ */
+public class NodeSet extends AbstractSet<Node> {
+
+  private final NodeMap<Boolean> map;
+
+  public NodeSet() {
+    map = new NodeMap<>();
+  }
+
+  public NodeSet(int expectedSize) {
+    map = new NodeMap<>(expectedSize);
+  }
+
+  public NodeSet(Collection<? extends Node> nodes) {
+    map = new NodeMap<>(nodes.size());
+    addAll(nodes);
+  }
+
+  @Override
+  public boolean add(Node node) {
+    return map.put(node, Boolean.TRUE) == null;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return map.containsKey(o);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return map.remove(o) != null;
+  }
+
+  @Override
+  public Iterator<Node> iterator() {
+    return map.keySet().iterator();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+}
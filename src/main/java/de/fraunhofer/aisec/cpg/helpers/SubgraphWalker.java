@@ -31,26 +31,32 @@ import de.fraunhofer.aisec.cpg.graph.Node;
 import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
 import de.fraunhofer.aisec.cpg.graph.SubGraph;
 import de.fraunhofer.aisec.cpg.graph.Type;
+import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import de.fraunhofer.aisec.cpg.graph.ValueDeclaration;
 import de.fraunhofer.aisec.cpg.graph.VariableDeclaration;
 import java.lang.annotation.AnnotationFormatError;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
-import java.util.HashSet;
-import java.util.IdentityHashMap;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.tuple.MutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +65,19 @@ public class SubgraphWalker {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SubgraphWalker.class);
 
+  /**
+   * Getters for all fields annotated with {@code @SubGraph("AST")}, computed once per node class.
+   * Each getter has the type {@code (Node) -> Object}, so that it can be invoked without any
+   * further reflection or annotation lookup.
+   */
+  private static final ClassValue<List<MethodHandle>> AST_ACCESSORS =
+      new ClassValue<>() {
+        @Override
+        protected List<MethodHandle> computeValue(Class<?> type) {
+          return createAstAccessors(type);
+        }
+      };
+
   // hide ctor
   private SubgraphWalker() {}
 
@@ -73,6 +92,35 @@ public class SubgraphWalker {
     return new ArrayList<>();
   }
 
+  private static List<MethodHandle> createAstAccessors(Class<?> classType) {
+    List<MethodHandle> accessors = new ArrayList<>();
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    for (Field field : getAllFields(classType)) {
+      SubGraph subGraph = field.getAnnotation(SubGraph.class);
+      if (subGraph == null || !Arrays.asList(subGraph.value()).contains("AST")) {
+        continue;
+      }
+      if (!Node.class.isAssignableFrom(field.getType())
+          && !Collection.class.isAssignableFrom(field.getType())
+          && !field.getType().isAssignableFrom(Node.class)) {
+        throw new AnnotationFormatError(
+            "Found @SubGraph(\"AST\") on field of type "
+                + field.getType()
+                + " but can only used with node graph classes or collections of graph nodes");
+      }
+      try {
+        field.setAccessible(true);
+        accessors.add(
+            lookup
+                .unreflectGetter(field)
+                .asType(MethodType.methodType(Object.class, Node.class)));
+      } catch (IllegalAccessException ex) {
+        LOGGER.error("Error while retrieving AST children: {}", ex.getMessage());
+      }
+    }
+    return List.copyOf(accessors);
+  }
+
   /**
    * Calls handler function of all super-classes of the current node to get the AST children of the
    * node.
@@ -81,42 +129,36 @@ public class SubgraphWalker {
    * @return a set of children from the nodes member variables
    */
   public static Set<Node> getAstChildren(Node node) {
-    HashSet<Node> children = new HashSet<>(); // Set for duplicate elimination
+    NodeSet children = new NodeSet(); // Set for duplicate elimination
     if (node == null) return children;
 
-    Class classType = node.getClass();
-    for (Field field : getAllFields(classType)) {
-      SubGraph subGraph = field.getAnnotation(SubGraph.class);
-      if (subGraph != null && Arrays.asList(subGraph.value()).contains("AST")) {
-        try {
-          // disable access mechanisms
-          field.setAccessible(true);
-
-          Object obj = field.get(node);
-
-          // restore old state
-          field.setAccessible(false);
+    for (MethodHandle accessor : AST_ACCESSORS.get(node.getClass())) {
+      Object obj;
+      try {
+        obj = (Object) accessor.invokeExact(node);
+      } catch (Throwable t) {
+        LOGGER.error("Error while retrieving AST children: {}", t.getMessage());
+        continue;
+      }
 
-          // skip, if null
-          if (obj == null) {
-            continue;
-          }
+      // skip, if null
+      if (obj == null) {
+        continue;
+      }
 
-          if (obj instanceof Node) {
-            children.add((Node) obj);
-          } else if (obj instanceof Collection) {
-            Collection<? extends Node> astChildren = (Collection<? extends Node>) obj;
-            astChildren.removeIf(Objects::isNull);
-            children.addAll(astChildren);
-          } else {
-            throw new AnnotationFormatError(
-                "Found @SubGraph(\"AST\") on field of type "
-                    + obj.getClass()
-                    + " but can only used with node graph classes or collections of graph nodes");
+      if (obj instanceof Node) {
+        children.add((Node) obj);
+      } else if (obj instanceof Collection) {
+        for (Object child : (Collection<?>) obj) {
+          if (child != null) {
+            children.add((Node) child);
           }
-        } catch (IllegalAccessException ex) {
-          LOGGER.error("Error while retrieving AST children: {}", ex.getMessage());
         }
+      } else {
+        throw new AnnotationFormatError(
+            "Found @SubGraph(\"AST\") on field of type "
+                + obj.getClass()
+                + " but can only used with node graph classes or collections of graph nodes");
       }
     }
     return children;
@@ -129,11 +171,57 @@ public class SubgraphWalker {
    * @return
    */
   public static List<Node> flattenAST(Node n) {
-    List<Node> list = new ArrayList<>();
-    if (n != null) list.add(n);
-    SubgraphWalker.getAstChildren(n).forEach(node -> list.addAll(flattenAST(node)));
-    list.sort(new NodeComparator());
-    return list;
+    return preOrder(n).sorted(new NodeComparator()).collect(Collectors.toList());
+  }
+
+  /**
+   * Lazily iterates over the AST subtree starting at the given node, visiting each node before its
+   * children. The traversal uses an explicit stack, so that deeply nested trees do not exhaust the
+   * call stack.
+   *
+   * @param root the root of the subtree, may be null
+   * @return an iterator over the nodes of the subtree in pre-order
+   */
+  public static Iterator<Node> preOrderIterator(Node root) {
+    return new PreOrderIterator(root);
+  }
+
+  /**
+   * Lazily iterates over the AST subtree starting at the given node, visiting each node after its
+   * children.
+   *
+   * @param root the root of the subtree, may be null
+   * @return an iterator over the nodes of the subtree in post-order
+   */
+  public static Iterator<Node> postOrderIterator(Node root) {
+    return new PostOrderIterator(root);
+  }
+
+  /**
+   * Streams the AST subtree starting at the given node in pre-order. In contrast to {@link
+   * #flattenAST(Node)}, the nodes are neither materialized nor sorted.
+   *
+   * @param root the root of the subtree, may be null
+   * @return a sequential stream of the nodes of the subtree
+   */
+  public static Stream<Node> preOrder(Node root) {
+    return stream(preOrderIterator(root));
+  }
+
+  /**
+   * Streams the AST subtree starting at the given node in post-order.
+   *
+   * @param root the root of the subtree, may be null
+   * @return a sequential stream of the nodes of the subtree
+   */
+  public static Stream<Node> postOrder(Node root) {
+    return stream(postOrderIterator(root));
+  }
+
+  private static Stream<Node> stream(Iterator<Node> iterator) {
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+        false);
   }
 
   /**
@@ -147,32 +235,96 @@ public class SubgraphWalker {
    */
   public static Border getEOGPathEdges(Node n) {
     Border border = new Border();
-    List<Node> flattedASTTree = flattenAST(n);
     List<Node> eogNodes =
-        flattedASTTree.stream()
+        preOrder(n)
             .filter(node -> !node.getPrevEOG().isEmpty() || !node.getNextEOG().isEmpty())
+            .sorted(new NodeComparator())
             .collect(Collectors.toList());
+    Set<Node> eogNodeSet = new NodeSet(eogNodes);
     // Nodes that are incoming edges, no other node
     border.entries =
         eogNodes.stream()
-            .filter(node -> node.getPrevEOG().stream().anyMatch(prev -> !eogNodes.contains(prev)))
+            .filter(node -> node.getPrevEOG().stream().anyMatch(prev -> !eogNodeSet.contains(prev)))
             .collect(Collectors.toList());
     border.exits =
         eogNodes.stream()
-            .filter(node -> node.getNextEOG().stream().anyMatch(next -> !eogNodes.contains(next)))
+            .filter(node -> node.getNextEOG().stream().anyMatch(next -> !eogNodeSet.contains(next)))
             .collect(Collectors.toList());
     return border;
   }
 
   /**
-   * Visit all nodes.
+   * Visit all nodes in pre-order.
    *
    * @param stmt
    */
   public static void visit(Node stmt, Consumer<Node> visitor) {
-    List<Node> nodes = flattenAST(stmt);
-    for (Node n : nodes) {
-      visitor.accept(n);
+    preOrderIterator(stmt).forEachRemaining(visitor);
+  }
+
+  private static class PreOrderIterator implements Iterator<Node> {
+
+    /** The children of all nodes on the current path that have not been visited yet. */
+    private final Deque<Iterator<Node>> stack = new ArrayDeque<>();
+
+    PreOrderIterator(Node root) {
+      if (root != null) {
+        stack.push(List.of(root).iterator());
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!stack.isEmpty() && !stack.peek().hasNext()) {
+        stack.pop();
+      }
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public Node next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Node node = stack.peek().next();
+      stack.push(getAstChildren(node).iterator());
+      return node;
+    }
+  }
+
+  private static class PostOrderIterator implements Iterator<Node> {
+
+    /** The nodes on the current path and their children that have not been visited yet. */
+    private final Deque<Node> path = new ArrayDeque<>();
+
+    private final Deque<Iterator<Node>> children = new ArrayDeque<>();
+
+    PostOrderIterator(Node root) {
+      if (root != null) {
+        descend(root);
+      }
+    }
+
+    private void descend(Node node) {
+      path.push(node);
+      children.push(getAstChildren(node).iterator());
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !path.isEmpty();
+    }
+
+    @Override
+    public Node next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      while (children.peek().hasNext()) {
+        descend(children.peek().next());
+      }
+      children.pop();
+      return path.pop();
     }
   }
 
@@ -238,7 +390,7 @@ public class SubgraphWalker {
     public void iterate(Node root) {
       todo = new ArrayDeque<>();
       backlog = new ArrayDeque<>();
-      Set<Node> seen = new HashSet<>();
+      Set<Node> seen = new NodeSet();
 
       todo.push(root);
       while (!todo.isEmpty()) {
@@ -252,12 +404,11 @@ public class SubgraphWalker {
 
           onNodeVisit.forEach(c -> c.accept(current));
 
-          Set<Node> unseenChildren =
-              SubgraphWalker.getAstChildren(current).stream()
-                  .filter(Predicate.not(seen::contains))
-                  .collect(Collectors.toSet());
-          seen.addAll(unseenChildren);
-          unseenChildren.forEach(todo::push);
+          for (Node child : SubgraphWalker.getAstChildren(current)) {
+            if (seen.add(child)) {
+              todo.push(child);
+            }
+          }
           backlog.push(current);
         }
       }
@@ -296,8 +447,7 @@ public class SubgraphWalker {
    */
   public static class ScopedWalker {
 
-    // declarationScope -> (parentScope, declarations)
-    private Map<Node, Pair<Node, List<ValueDeclaration>>> declarations = new IdentityHashMap<>();
+    private Map<Node, ScopeDeclarations> declarations = new NodeMap<>();
     private Node currentScope = null;
     private Type currentClass = null;
     private IterativeGraphWalker walker;
@@ -348,9 +498,9 @@ public class SubgraphWalker {
 
     private void leaveScope(Node exiting) {
       if (currentScope != null) {
-        Pair<Node, List<ValueDeclaration>> entry = declarations.getOrDefault(currentScope, null);
+        ScopeDeclarations entry = declarations.getOrDefault(currentScope, null);
         if (entry != null) {
-          currentScope = entry.getLeft(); // switch to parent scope, like scope manager exit
+          currentScope = entry.parent; // switch to parent scope, like scope manager exit
         }
       }
     }
@@ -367,11 +517,11 @@ public class SubgraphWalker {
       }
 
       if (!declarations.containsKey(declarationScope)) {
-        declarations.put(declarationScope, new MutablePair<>(parentScope, new ArrayList<>()));
+        declarations.put(declarationScope, new ScopeDeclarations(parentScope));
       }
 
       if (current instanceof FieldDeclaration || current instanceof VariableDeclaration) {
-        declarations.get(declarationScope).getRight().add((ValueDeclaration) current);
+        declarations.get(declarationScope).add((ValueDeclaration) current);
       }
     }
 
@@ -381,11 +531,67 @@ public class SubgraphWalker {
 
       // get all declarations from the current scope and all its parent scopes
       while (currentScope != null && declarations.containsKey(scope)) {
-        Pair<Node, List<ValueDeclaration>> entry = declarations.get(currentScope);
-        result.addAll(entry.getRight());
-        currentScope = entry.getLeft();
+        ScopeDeclarations entry = declarations.get(currentScope);
+        result.addAll(entry.declarations);
+        currentScope = entry.parent;
       }
       return result;
     }
+
+    /**
+     * Looks up a declaration by its name in a declaration scope and all its parent scopes. This
+     * yields the first declaration of {@link #getDeclarationsForScope(Node)} with that name, but
+     * without collecting the declarations of all scopes.
+     *
+     * @param scope the root node of the declaration scope
+     * @param name the name of the declaration
+     * @return the declaration, or null if there is none with that name
+     */
+    @Nullable
+    public ValueDeclaration getDeclarationForScope(Node scope, String name) {
+      ScopeDeclarations entry = declarations.get(scope);
+      while (entry != null) {
+        ValueDeclaration declaration = entry.get(name);
+        if (declaration != null) {
+          return declaration;
+        }
+        entry = entry.parent != null ? declarations.get(entry.parent) : null;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * The declarations of a scope of the {@link ScopedWalker}, in order and by their name. The index
+   * by name is built again if a declaration of the translation was renamed in the meantime.
+   */
+  private static class ScopeDeclarations {
+
+    private final Node parent;
+    private final List<ValueDeclaration> declarations = new ArrayList<>();
+    private final Map<String, ValueDeclaration> byName = new HashMap<>();
+    private int renamedDeclarations = TypeManager.getInstance().getRenamedDeclarations();
+
+    private ScopeDeclarations(Node parent) {
+      this.parent = parent;
+    }
+
+    private void add(ValueDeclaration declaration) {
+      declarations.add(declaration);
+      byName.putIfAbsent(declaration.getName(), declaration);
+    }
+
+    @Nullable
+    private ValueDeclaration get(String name) {
+      int renamed = TypeManager.getInstance().getRenamedDeclarations();
+      if (renamedDeclarations != renamed) {
+        renamedDeclarations = renamed;
+        byName.clear();
+        for (ValueDeclaration declaration : declarations) {
+          byName.putIfAbsent(declaration.getName(), declaration);
+        }
+      }
+      return byName.get(name);
+    }
   }
 }
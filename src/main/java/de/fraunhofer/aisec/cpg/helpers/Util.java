@@ -41,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
 
 public class Util {
 
@@ -103,8 +104,11 @@ public class Util {
    * @return a List of searched types
    */
   public static <S extends Node> List<S> subnodesOfType(Node node, Class<S> specificClass) {
-    return filterCast(SubgraphWalker.flattenAST(node), specificClass).stream()
+    return SubgraphWalker.preOrder(node)
+        .filter(specificClass::isInstance)
+        .map(specificClass::cast)
         .filter(distinctByIdentity())
+        .sorted(new NodeComparator())
         .collect(Collectors.toList());
   }
 
@@ -126,8 +130,10 @@ public class Util {
    * @return a list of nodes with the specified String.
    */
   public static List<Node> subnodesOfCode(Node node, String searchCode) {
-    return SubgraphWalker.flattenAST(node).stream()
-        .filter(n -> n.getCode() != null && n.getCode().equals(searchCode))
+    return SubgraphWalker.preOrder(node)
+        .filter(
+            n -> n.getCodeSequence() != null && StringUtils.equals(n.getCodeSequence(), searchCode))
+        .sorted(new NodeComparator())
         .collect(Collectors.toList());
   }
 
@@ -31,6 +31,7 @@ import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
 import de.fraunhofer.aisec.cpg.graph.CallExpression;
 import de.fraunhofer.aisec.cpg.graph.ConstructExpression;
 import de.fraunhofer.aisec.cpg.graph.ConstructorDeclaration;
+import de.fraunhofer.aisec.cpg.graph.DeclarationIndex;
 import de.fraunhofer.aisec.cpg.graph.ExplicitConstructorInvocation;
 import de.fraunhofer.aisec.cpg.graph.Expression;
 import de.fraunhofer.aisec.cpg.graph.FunctionDeclaration;
@@ -44,6 +45,8 @@ import de.fraunhofer.aisec.cpg.graph.ParamVariableDeclaration;
 import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Type;
+import de.fraunhofer.aisec.cpg.helpers.NodeMap;
+import de.fraunhofer.aisec.cpg.helpers.NodeSet;
 import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker.ScopedWalker;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -53,8 +56,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Resolves {@link CallExpression} and {@link NewExpression} targets.
@@ -70,19 +73,42 @@ import java.util.stream.Collectors;
  * NewExpression#getInstantiates()} points to the correct {@link RecordDeclaration}. Additionally,
  * the {@link ConstructExpression#getConstructor()} is set to the according {@link
  * ConstructorDeclaration}
+ *
+ * <p>Calls to functions that are not members of a record are resolved by their qualified name, see
+ * {@link CallExpression#getFqn()}, with an index of the functions at namespace scope of the whole
+ * translation, so that their targets may also be located in other translation units. Functions with
+ * internal linkage are only targets of calls in the unit that declares them. Prototypes are linked
+ * to their definition, see {@link FunctionDeclaration#getDefinition()}.
  */
+@DependsOn({TypeHierarchyResolver.class, ImportResolver.class, VariableUsageResolver.class})
 public class CallResolver implements Pass {
 
-  private Map<String, RecordDeclaration> recordMap = new HashMap<>();
+  private static final int VARIADIC = -1;
+
+  private DeclarationIndex index;
   private Map<FunctionDeclaration, Type> containingType = new HashMap<>();
   private RecordDeclaration currentClass;
   private TranslationUnitDeclaration currentTU;
 
+  /** Functions at namespace scope, by their qualified name and number of parameters. */
+  private Map<String, List<FunctionDeclaration>> functions = new HashMap<>();
+  /** Functions declared at the top level of the current translation unit or its shared headers. */
+  private NodeSet visibleFunctions = new NodeSet();
+  /** Methods of each record, by their simple name and number of parameters. */
+  private NodeMap<Map<String, List<FunctionDeclaration>>> methodTables = new NodeMap<>();
+  /** Candidates of each record, by method name and argument types of the calls resolved so far. */
+  private NodeMap<Map<String, List<FunctionDeclaration>>> recordCandidates = new NodeMap<>();
+
   @Override
   public void cleanup() {
     this.containingType.clear();
+    this.functions.clear();
+    this.visibleFunctions.clear();
+    this.methodTables.clear();
+    this.recordCandidates.clear();
     this.currentClass = null;
     this.currentTU = null;
+    this.index = null;
   }
 
   @Override
@@ -95,15 +121,14 @@ public class CallResolver implements Pass {
 
   @Override
   public void accept(TranslationResult translationResult) {
-    ScopedWalker walker = new ScopedWalker();
-    walker.registerHandler(this::findRecords);
-    walker.registerHandler(this::registerMethods);
-
-    for (TranslationUnitDeclaration tu : translationResult.getTranslationUnits()) {
-      walker.iterate(tu);
+    index = translationResult.getDeclarationIndex();
+    index.getRecords().forEach(this::registerMethods);
+    for (String name : index.getFunctionNames()) {
+      index.getFunctions(name).forEach(f -> registerFunction(name, f));
     }
+    linkDefinitions();
 
-    walker.clearCallbacks();
+    ScopedWalker walker = new ScopedWalker();
     walker.registerHandler(this::resolve);
 
     for (TranslationUnitDeclaration tu : translationResult.getTranslationUnits()) {
@@ -111,25 +136,131 @@ public class CallResolver implements Pass {
     }
   }
 
-  private void findRecords(Node node) {
-    if (node instanceof RecordDeclaration) {
-      recordMap.putIfAbsent(node.getName(), (RecordDeclaration) node);
+  private void registerMethods(RecordDeclaration record) {
+    Type type = new Type(record.getName());
+    record.getMethods().forEach(m -> containingType.put(m, type));
+    record.getConstructors().forEach(c -> containingType.put(c, type));
+  }
+
+  private void registerFunction(String name, FunctionDeclaration function) {
+    functions.computeIfAbsent(getFunctionKey(name, function), k -> new ArrayList<>()).add(function);
+  }
+
+  /**
+   * Returns the key of a function in the function index and the method tables of this pass.
+   * Variadic functions accept any number of arguments, so they are keyed by their name and an arity
+   * of {@link #VARIADIC}.
+   */
+  private static String getFunctionKey(String name, FunctionDeclaration function) {
+    return getFunctionKey(
+        name,
+        function.getParameters().stream().anyMatch(ParamVariableDeclaration::isVariadic)
+            ? VARIADIC
+            : function.getParameters().size());
+  }
+
+  /** Returns the key of the functions with the given name and number of parameters. */
+  private static String getFunctionKey(String name, int arity) {
+    return name + "/" + arity;
+  }
+
+  /**
+   * Links every prototype with external linkage to the first definition with external linkage and
+   * the same qualified name and signature. Functions with internal linkage are linked per unit, see
+   * {@link #linkInternalDefinitions(List)}.
+   */
+  private void linkDefinitions() {
+    functions.values().stream()
+        .map(
+            candidates ->
+                candidates.stream()
+                    .filter(f -> !f.hasInternalLinkage())
+                    .collect(Collectors.toList()))
+        .forEach(CallResolver::linkPrototypes);
+  }
+
+  /** Links the prototypes with internal linkage of the current unit to their definitions. */
+  private void linkInternalDefinitions(List<FunctionDeclaration> unitFunctions) {
+    unitFunctions.stream()
+        .filter(FunctionDeclaration::hasInternalLinkage)
+        .collect(Collectors.groupingBy(FunctionDeclaration::getName))
+        .values()
+        .forEach(CallResolver::linkPrototypes);
+  }
+
+  private static void linkPrototypes(List<FunctionDeclaration> candidates) {
+    Map<String, FunctionDeclaration> definitions = new HashMap<>();
+    for (FunctionDeclaration function : candidates) {
+      if (function.hasBody()) {
+        definitions.putIfAbsent(getParameterSignature(function), function);
+      }
+    }
+    if (definitions.isEmpty()) {
+      return;
+    }
+    for (FunctionDeclaration function : candidates) {
+      if (!function.hasBody()) {
+        function.setDefinition(definitions.get(getParameterSignature(function)));
+      }
     }
   }
 
-  private void registerMethods(Type currentClass, Node currentScope, Node currentNode) {
-    if (currentNode instanceof MethodDeclaration) {
-      containingType.put((FunctionDeclaration) currentNode, currentClass);
+  /**
+   * Returns the signature of a function without its name, which may be qualified differently by a
+   * prototype and a definition outside of the namespace, e.g. {@code void ns::f() {}}.
+   */
+  private static String getParameterSignature(FunctionDeclaration function) {
+    return function.getSignature().substring(function.getName().length());
+  }
+
+  /**
+   * Resolves a call to a function that is not a member of a record by its qualified name.
+   * Functions that are visible in the current translation unit take precedence over functions of
+   * other units, of which only functions with external linkage are considered. A call to a
+   * prototype also invokes its definition.
+   */
+  private List<FunctionDeclaration> resolveFunctionCall(CallExpression call) {
+    String name = call.getFqn() != null ? call.getFqn() : call.getName();
+    List<Type> signature = call.getSignature();
+    List<FunctionDeclaration> candidates =
+        new ArrayList<>(functions.getOrDefault(getFunctionKey(name, signature.size()), List.of()));
+    candidates.addAll(functions.getOrDefault(getFunctionKey(name, VARIADIC), List.of()));
+    candidates.removeIf(f -> !f.hasSignature(signature));
+
+    List<FunctionDeclaration> invocationCandidates =
+        candidates.stream().filter(visibleFunctions::contains).collect(Collectors.toList());
+    if (invocationCandidates.isEmpty()) {
+      // e.g. an implicitly declared function in C
+      invocationCandidates =
+          candidates.stream().filter(f -> !f.hasInternalLinkage()).collect(Collectors.toList());
     }
+
+    for (FunctionDeclaration candidate : List.copyOf(invocationCandidates)) {
+      FunctionDeclaration definition = candidate.getDefinition();
+      if (definition != null && invocationCandidates.stream().noneMatch(f -> f == definition)) {
+        invocationCandidates.add(definition);
+      }
+    }
+    return invocationCandidates;
   }
 
   private void resolve(Node node) {
     if (node instanceof TranslationUnitDeclaration) {
       this.currentTU = (TranslationUnitDeclaration) node;
+      List<FunctionDeclaration> unitFunctions =
+          Stream.concat(
+                  currentTU.getDeclarations().stream(),
+                  currentTU.getSharedDeclarations().stream())
+              .filter(FunctionDeclaration.class::isInstance)
+              .map(FunctionDeclaration.class::cast)
+              .collect(Collectors.toList());
+      this.visibleFunctions.clear();
+      this.visibleFunctions.addAll(unitFunctions);
+      linkInternalDefinitions(unitFunctions);
     } else if (node instanceof ExplicitConstructorInvocation) {
       ExplicitConstructorInvocation eci = (ExplicitConstructorInvocation) node;
       if (eci.getContainingClass() != null) {
-        RecordDeclaration record = recordMap.get(eci.getContainingClass());
+        RecordDeclaration record = index.getRecord(eci.getContainingClass());
         List<Type> signature =
             eci.getArguments().stream().map(Expression::getType).collect(Collectors.toList());
         if (record != null) {
@@ -146,16 +277,7 @@ public class CallResolver implements Pass {
 
       if (this.currentClass == null && this.currentTU != null) {
         // Handle function (not method) calls
-        // C++ allows function overloading. Make sure we have at least the same number of arguments
-        List<FunctionDeclaration> invocationCandidates =
-            currentTU.getDeclarations().stream()
-                .filter(FunctionDeclaration.class::isInstance)
-                .map(FunctionDeclaration.class::cast)
-                .filter(
-                    f -> f.getName().equals(call.getName()) && f.hasSignature(call.getSignature()))
-                .collect(Collectors.toList());
-
-        call.setInvokes(invocationCandidates);
+        call.setInvokes(resolveFunctionCall(call));
       } else if (!handlePossibleStaticImport(call)) {
         Set<Type> possibleContainingTypes = getPossibleContainingTypes(node);
 
@@ -172,7 +294,7 @@ public class CallResolver implements Pass {
           List<Type> signature = call.getSignature();
           Set<RecordDeclaration> records =
               possibleContainingTypes.stream()
-                  .map(t -> recordMap.get(t.getTypeName()))
+                  .map(t -> index.getRecord(t.getTypeName()))
                   .filter(Objects::nonNull)
                   .collect(Collectors.toSet());
           invocationCandidates =
@@ -189,7 +311,7 @@ public class CallResolver implements Pass {
       // Handle constructor calls
       NewExpression newExpression = (NewExpression) node;
       String typeName = newExpression.getType().getTypeName();
-      RecordDeclaration record = recordMap.get(typeName);
+      RecordDeclaration record = index.getRecord(typeName);
       newExpression.setInstantiates(record);
       if (newExpression.getInitializer() instanceof ConstructExpression) {
         ConstructExpression initializer = (ConstructExpression) newExpression.getInitializer();
@@ -244,7 +366,7 @@ public class CallResolver implements Pass {
         currentClass.getStaticImportStatements().stream()
             .filter(i -> i.endsWith("." + name))
             .map(i -> i.substring(0, i.lastIndexOf('.')))
-            .map(c -> recordMap.getOrDefault(c, null))
+            .map(c -> index.getRecord(c))
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
     for (RecordDeclaration record : containingRecords) {
@@ -263,6 +385,8 @@ public class CallResolver implements Pass {
       }
       dummy.setParameters(params);
       record.getMethods().add(dummy);
+      methodTables.remove(record);
+      recordCandidates.remove(record);
       currentClass.getStaticImports().add(dummy);
       invokes.add(dummy);
     }
@@ -306,14 +430,48 @@ public class CallResolver implements Pass {
     return possibleTypes;
   }
 
+  /**
+   * Returns the methods of a record by their simple name and number of parameters. Names of methods
+   * may be qualified with the name of the record, which is removed from the simple name.
+   */
+  private Map<String, List<FunctionDeclaration>> getMethodTable(RecordDeclaration record) {
+    Map<String, List<FunctionDeclaration>> table = methodTables.get(record);
+    if (table == null) {
+      table = new HashMap<>();
+      String prefix = record.getName() + ".";
+      for (MethodDeclaration method : record.getMethods()) {
+        String name =
+            method.getName().startsWith(prefix)
+                ? method.getName().substring(prefix.length())
+                : method.getName();
+        table.computeIfAbsent(getFunctionKey(name, method), k -> new ArrayList<>()).add(method);
+      }
+      methodTables.put(record, table);
+    }
+    return table;
+  }
+
   private List<FunctionDeclaration> getInvocationCandidatesFromRecord(
       RecordDeclaration record, String name, List<Type> signature) {
-    Pattern namePattern =
-        Pattern.compile("(" + Pattern.quote(record.getName()) + "\\.)?" + Pattern.quote(name));
-    return record.getMethods().stream()
-        .filter(m -> namePattern.matcher(m.getName()).matches() && m.hasSignature(signature))
-        .map(FunctionDeclaration.class::cast)
-        .collect(Collectors.toList());
+    Map<String, List<FunctionDeclaration>> resolved = recordCandidates.get(record);
+    if (resolved == null) {
+      resolved = new HashMap<>();
+      recordCandidates.put(record, resolved);
+    }
+    String key =
+        name + signature.stream().map(Type::toString).collect(Collectors.joining(",", "(", ")"));
+    List<FunctionDeclaration> candidates = resolved.get(key);
+    if (candidates == null) {
+      Map<String, List<FunctionDeclaration>> table = getMethodTable(record);
+      candidates =
+          Stream.concat(
+                  table.getOrDefault(getFunctionKey(name, signature.size()), List.of()).stream(),
+                  table.getOrDefault(getFunctionKey(name, VARIADIC), List.of()).stream())
+              .filter(m -> m.hasSignature(signature))
+              .collect(Collectors.toList());
+      resolved.put(key, candidates);
+    }
+    return candidates;
   }
 
   private List<FunctionDeclaration> getInvocationCandidatesFromParents(
@@ -43,12 +43,12 @@ import de.fraunhofer.aisec.cpg.graph.ReturnStatement;
 import de.fraunhofer.aisec.cpg.graph.Statement;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.WhileStatement;
+import de.fraunhofer.aisec.cpg.helpers.NodeSet;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -70,6 +70,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  *
  * @author julian
  */
+@DependsOn({VariableUsageResolver.class, CallResolver.class})
 public class ControlFlowGraphPass implements Pass {
   private List<Statement> remaining = new CopyOnWriteArrayList<>();
   /** For keeping track of nested break/continue scopes. */
@@ -155,7 +156,7 @@ public class ControlFlowGraphPass implements Pass {
   private void handleStatements(CompoundStatement body) {
     // Used to mark Nodes which should not automatically be linked to their successors (e.g. last
     // stmt in THEN block should not be linked to first stmt in ELSE block)
-    Set<Node> doNotLinkToFollowingStmt = new HashSet<>();
+    Set<Node> doNotLinkToFollowingStmt = new NodeSet();
 
     // Store all statements of the block in our todo list.
     this.remaining.addAll(body.getStatements());
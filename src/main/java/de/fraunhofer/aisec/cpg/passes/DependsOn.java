@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.passes;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the passes whose results a {@link Pass} consumes. The {@link PassScheduler} starts a
+ * pass only after all of its registered dependencies have finished. Passes without a dependency
+ * path between them may run concurrently, so a pass also has to list the passes that modify parts
+ * of the graph it reads or writes.
+ *
+ * <p>Passes without this annotation are treated conservatively and depend on all passes that were
+ * registered before them. An empty value declares that the pass does not depend on any other pass.
+ *
+ * <p>Passes listed in {@link #after()} are only ordered before the annotated pass if they are
+ * registered. Unlike {@link #value()}, they are not required by it, so they are not pulled in when
+ * the passes of a {@link GraphLayer} are computed.
+ *
+ * <p>Passes listed in {@link #followedBy()} complete the results of the annotated pass. They are
+ * registered automatically if the annotated pass is registered without them.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+public @interface DependsOn {
+  Class<? extends Pass>[] value() default {};
+
+  /** Passes that have to finish before the annotated pass if they are registered. */
+  Class<? extends Pass>[] after() default {};
+
+  /** Passes that complete the results of the annotated pass and are registered along with it. */
+  Class<? extends Pass>[] followedBy() default {};
+}
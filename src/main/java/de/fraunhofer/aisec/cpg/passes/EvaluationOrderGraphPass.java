@@ -78,6 +78,7 @@ import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import de.fraunhofer.aisec.cpg.graph.UnaryOperator;
 import de.fraunhofer.aisec.cpg.graph.VariableDeclaration;
 import de.fraunhofer.aisec.cpg.graph.WhileStatement;
+import de.fraunhofer.aisec.cpg.helpers.NodeSet;
 import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
 import de.fraunhofer.aisec.cpg.passes.scopes.DeclarationScope;
 import de.fraunhofer.aisec.cpg.passes.scopes.FunctionScope;
@@ -85,8 +86,10 @@ import de.fraunhofer.aisec.cpg.passes.scopes.LoopScope;
 import de.fraunhofer.aisec.cpg.passes.scopes.Scope;
 import de.fraunhofer.aisec.cpg.passes.scopes.SwitchScope;
 import de.fraunhofer.aisec.cpg.passes.scopes.TryScope;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -116,6 +119,12 @@ import org.slf4j.LoggerFactory;
  *
  * @author julian and konrad
  */
+@DependsOn({
+  TypeHierarchyResolver.class,
+  ImportResolver.class,
+  VariableUsageResolver.class,
+  CallResolver.class
+})
 public class EvaluationOrderGraphPass implements Pass {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EvaluationOrderGraphPass.class);
@@ -137,15 +146,12 @@ public class EvaluationOrderGraphPass implements Pass {
   //  private Scene scene;
 
   private static boolean reachableFromValidEOGRoot(Node node) {
-    Set<Node> passedBy = new HashSet<>();
-    List<Node> workList = new ArrayList<>(node.getPrevEOG());
+    Set<Node> passedBy = new NodeSet(node.getPrevEOG());
+    Deque<Node> workList = new ArrayDeque<>(passedBy);
     while (!workList.isEmpty()) {
-      Node toProcess = workList.get(0);
-      workList.remove(toProcess);
-      passedBy.add(toProcess);
+      Node toProcess = workList.poll();
       if (toProcess instanceof FunctionDeclaration) return true;
-      for (Node pred : toProcess.getPrevEOG())
-        if (!passedBy.contains(pred) && !workList.contains(pred)) workList.add(pred);
+      for (Node pred : toProcess.getPrevEOG()) if (passedBy.add(pred)) workList.add(pred);
     }
     return false;
   }
@@ -203,21 +209,21 @@ public class EvaluationOrderGraphPass implements Pass {
    * @param tu
    */
   private void removeUnreachableEOGEdges(TranslationUnitDeclaration tu) {
-    List<Node> eognodes =
-        SubgraphWalker.flattenAST(tu).stream()
+    Set<Node> eognodes =
+        SubgraphWalker.preOrder(tu)
             .filter(node -> !(node.getPrevEOG().isEmpty() && node.getNextEOG().isEmpty()))
-            .collect(Collectors.toList());
-    Set<Node> validStarts =
+            .collect(Collectors.toCollection(NodeSet::new));
+    Deque<Node> validStarts =
         eognodes.stream()
             .filter(node -> node instanceof FunctionDeclaration)
-            .collect(Collectors.toSet());
+            .collect(Collectors.toCollection(ArrayDeque::new));
+    eognodes.removeAll(validStarts);
     while (!validStarts.isEmpty()) {
-      eognodes.removeAll(validStarts);
-      validStarts =
-          validStarts.stream()
-              .flatMap(node -> node.getNextEOG().stream())
-              .filter(eognodes::contains)
-              .collect(Collectors.toSet());
+      for (Node next : validStarts.poll().getNextEOG()) {
+        if (eognodes.remove(next)) {
+          validStarts.add(next);
+        }
+      }
     }
     // remaining eognodes were not visited and have to be removed from the EOG
     for (Node unvisitedNode : eognodes) {
@@ -32,6 +32,17 @@ import de.fraunhofer.aisec.cpg.graph.Node;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
 
+/**
+ * Sets the file of every AST node to the name of its translation unit. The resolver passes add
+ * nodes to the AST, so this pass runs after them if they are registered.
+ */
+@DependsOn(
+    after = {
+      TypeHierarchyResolver.class,
+      ImportResolver.class,
+      VariableUsageResolver.class,
+      CallResolver.class
+    })
 public class FilenameMapper implements Pass {
 
   @Override
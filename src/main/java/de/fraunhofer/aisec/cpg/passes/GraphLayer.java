@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.passes;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A layer of the CPG that can be requested from the translation. Each layer is produced by one or
+ * more passes, which in turn may need the results of other passes (see {@link DependsOn}).
+ */
+public enum GraphLayer {
+  /** The syntax tree including code, comments and file names of the nodes. */
+  AST(List.of(FilenameMapper.class)),
+  /** Type hierarchies, resolved imports and resolved variable references. */
+  TYPES(
+      List.of(
+          TypeHierarchyResolver.class,
+          TypePropagationPass.class,
+          ImportResolver.class,
+          VariableUsageResolver.class)),
+  /** The call graph, i.e. calls resolved to their invoked functions. */
+  CG(List.of(CallResolver.class)),
+  /** The evaluation order graph. */
+  EOG(List.of(EvaluationOrderGraphPass.class)),
+  /** The control flow graph. */
+  CFG(List.of(ControlFlowGraphPass.class)),
+  /** The data flow graph, which is completed once variable references are resolved. */
+  DFG(List.of(VariableUsageResolver.class));
+
+  /** All known passes in the order in which they are registered. */
+  private static final Map<Class<? extends Pass>, Supplier<Pass>> PASSES = new LinkedHashMap<>();
+
+  static {
+    PASSES.put(TypeHierarchyResolver.class, TypeHierarchyResolver::new);
+    PASSES.put(TypePropagationPass.class, TypePropagationPass::new);
+    PASSES.put(ImportResolver.class, ImportResolver::new);
+    PASSES.put(VariableUsageResolver.class, VariableUsageResolver::new);
+    PASSES.put(CallResolver.class, CallResolver::new);
+    PASSES.put(FilenameMapper.class, FilenameMapper::new);
+    PASSES.put(EvaluationOrderGraphPass.class, EvaluationOrderGraphPass::new);
+    PASSES.put(ControlFlowGraphPass.class, ControlFlowGraphPass::new);
+  }
+
+  private final List<Class<? extends Pass>> producers;
+
+  GraphLayer(List<Class<? extends Pass>> producers) {
+    this.producers = producers;
+  }
+
+  public List<Class<? extends Pass>> getProducers() {
+    return producers;
+  }
+
+  /**
+   * Computes the minimal set of passes that produce the given layers, including all passes they
+   * transitively depend on.
+   *
+   * @param layers the requested layers
+   * @return new pass instances in their canonical registration order
+   */
+  public static List<Pass> getRequiredPasses(Collection<GraphLayer> layers) {
+    Set<Class<? extends Pass>> required = new HashSet<>();
+    Deque<Class<? extends Pass>> worklist = new ArrayDeque<>();
+    layers.forEach(l -> worklist.addAll(l.producers));
+    while (!worklist.isEmpty()) {
+      Class<? extends Pass> pass = worklist.pop();
+      if (required.add(pass)) {
+        DependsOn dependsOn = pass.getAnnotation(DependsOn.class);
+        if (dependsOn != null) {
+          worklist.addAll(List.of(dependsOn.value()));
+          worklist.addAll(List.of(dependsOn.followedBy()));
+        }
+      }
+    }
+    return PASSES.entrySet().stream()
+        .filter(e -> required.contains(e.getKey()))
+        .map(e -> e.getValue().get())
+        .collect(Collectors.toList());
+  }
+}
@@ -29,21 +29,17 @@ package de.fraunhofer.aisec.cpg.passes;
 import de.fraunhofer.aisec.cpg.TranslationResult;
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
 import de.fraunhofer.aisec.cpg.graph.Declaration;
+import de.fraunhofer.aisec.cpg.graph.DeclarationIndex;
 import de.fraunhofer.aisec.cpg.graph.EnumDeclaration;
 import de.fraunhofer.aisec.cpg.graph.FieldDeclaration;
 import de.fraunhofer.aisec.cpg.graph.MethodDeclaration;
-import de.fraunhofer.aisec.cpg.graph.Node;
 import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
 import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Region;
-import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Type;
 import de.fraunhofer.aisec.cpg.graph.ValueDeclaration;
-import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -53,11 +49,10 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+@DependsOn({TypeHierarchyResolver.class, TypePropagationPass.class})
 public class ImportResolver implements Pass {
 
-  private List<RecordDeclaration> records = new ArrayList<>();
-  private Map<String, Declaration> importables = new HashMap<>();
-  private Map<String, Declaration> unknownTypes = new HashMap<>();
+  private DeclarationIndex index;
 
   @Override
   public LanguageFrontend getLang() {
@@ -69,38 +64,19 @@ public class ImportResolver implements Pass {
 
   @Override
   public void cleanup() {
-    records.clear();
-    records = null;
-    importables.clear();
-    importables = null;
-    unknownTypes.clear();
-    unknownTypes = null;
+    index = null;
   }
 
   @Override
   public void accept(TranslationResult result) {
-    for (TranslationUnitDeclaration tu : result.getTranslationUnits()) {
-      findImportables(tu);
-    }
+    index = result.getDeclarationIndex();
 
-    for (RecordDeclaration record : records) {
+    for (RecordDeclaration record : index.getRecords()) {
       Set<Declaration> imports = getDeclarationsForTypeNames(record.getImportStatements());
       record.setImports(imports);
       Set<ValueDeclaration> staticImports = getStaticImports(record);
       record.setStaticImports(staticImports);
     }
-
-    if (!unknownTypes.isEmpty()) {
-      // Get the translation unit holding all unknown declarations, or create a new one if necessary
-      TranslationUnitDeclaration unknownDeclarations =
-          result.getTranslationUnits().stream()
-              .filter(tu -> tu.getName().equals("unknown declarations"))
-              .findFirst()
-              .orElseGet(() -> createUnknownTranslationUnit(result));
-      unknownDeclarations.setDeclarations(new ArrayList<>(unknownTypes.values()));
-      result.getTranslationUnits().add(unknownDeclarations);
-      importables.putAll(unknownTypes);
-    }
   }
 
   private Set<ValueDeclaration> getStaticImports(RecordDeclaration record) {
@@ -155,16 +131,12 @@ public class ImportResolver implements Pass {
   }
 
   private Declaration getOrCreateDeclaration(String name) {
-    if (importables.containsKey(name)) {
-      return importables.get(name);
-    } else {
-      // Create stubs for unknown imports
-      if (!unknownTypes.containsKey(name)) {
-        unknownTypes.put(
-            name, NodeBuilder.newRecordDeclaration(name, Collections.emptyList(), "class", ""));
-      }
-      return unknownTypes.get(name);
+    Declaration declaration = index.getRecordOrEnum(name);
+    if (declaration != null) {
+      return declaration;
     }
+    // Create stubs for unknown imports
+    return index.getOrCreateStub(name);
   }
 
   private Set<ValueDeclaration> getOrCreateMembers(EnumDeclaration base, String name) {
@@ -221,16 +193,4 @@ public class ImportResolver implements Pass {
 
     return result;
   }
-
-  private void findImportables(Node node) {
-    if (node instanceof RecordDeclaration) {
-      records.add((RecordDeclaration) node);
-      importables.putIfAbsent(node.getName(), (RecordDeclaration) node);
-    } else if (node instanceof EnumDeclaration) {
-      importables.putIfAbsent(node.getName(), (EnumDeclaration) node);
-    }
-    for (Node child : SubgraphWalker.getAstChildren(node)) {
-      findImportables(child);
-    }
-  }
 }
@@ -28,8 +28,6 @@ package de.fraunhofer.aisec.cpg.passes;
 
 import de.fraunhofer.aisec.cpg.TranslationResult;
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
-import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
-import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import java.util.function.Consumer;
 
 /**
@@ -58,12 +56,4 @@ public interface Pass extends Consumer<TranslationResult> {
   void setLang(LanguageFrontend lang);
 
   void cleanup();
-
-  default TranslationUnitDeclaration createUnknownTranslationUnit(TranslationResult result) {
-    TranslationUnitDeclaration declaration =
-        NodeBuilder.newTranslationUnitDeclaration("unknown declarations", "");
-    declaration.setDummy(true);
-    result.getTranslationUnits().add(declaration);
-    return declaration;
-  }
 }
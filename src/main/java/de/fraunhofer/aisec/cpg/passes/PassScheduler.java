@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.passes;
+
+import de.fraunhofer.aisec.cpg.TranslationResult;
+import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.TranslationException;
+import de.fraunhofer.aisec.cpg.graph.TypeManager;
+import de.fraunhofer.aisec.cpg.helpers.Benchmark;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a list of {@link Pass}es according to the dependencies they declare with {@link DependsOn}.
+ *
+ * <p>The dependencies form a directed acyclic graph. With a single worker, the passes are executed
+ * on the calling thread in a topological order that keeps the registration order wherever the
+ * dependencies allow it. With more workers, every pass is started as soon as all of its
+ * dependencies have finished, so that independent passes run concurrently.
+ */
+public class PassScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(PassScheduler.class);
+
+  private final List<Pass> passes;
+  private final int workers;
+
+  /** For each pass (by index), the indices of the passes it depends on. */
+  private final List<List<Integer>> dependencies = new ArrayList<>();
+  /** For each pass (by index), the indices of the passes that depend on it. */
+  private final List<List<Integer>> dependents = new ArrayList<>();
+
+  public PassScheduler(List<Pass> passes, int workers) {
+    this.passes = passes;
+    this.workers = Math.max(1, workers);
+
+    for (int i = 0; i < passes.size(); i++) {
+      dependencies.add(new ArrayList<>());
+      dependents.add(new ArrayList<>());
+    }
+    for (int i = 0; i < passes.size(); i++) {
+      for (int j : findDependencies(i)) {
+        dependencies.get(i).add(j);
+        dependents.get(j).add(i);
+      }
+    }
+  }
+
+  private List<Integer> findDependencies(int index) {
+    List<Integer> result = new ArrayList<>();
+    DependsOn dependsOn = passes.get(index).getClass().getAnnotation(DependsOn.class);
+    if (dependsOn == null) {
+      // undeclared passes keep their place in the registration order
+      for (int j = 0; j < index; j++) {
+        result.add(j);
+      }
+      return result;
+    }
+
+    for (Class<? extends Pass> dependency : dependsOn.after()) {
+      for (int j = 0; j < passes.size(); j++) {
+        if (j != index && dependency.isInstance(passes.get(j)) && !result.contains(j)) {
+          result.add(j);
+        }
+      }
+    }
+    for (Class<? extends Pass> dependency : dependsOn.value()) {
+      boolean registered = false;
+      for (int j = 0; j < passes.size(); j++) {
+        if (j != index && dependency.isInstance(passes.get(j))) {
+          result.add(j);
+          registered = true;
+        }
+      }
+      if (!registered) {
+        log.debug(
+            "{} depends on {}, which is not registered",
+            passes.get(index).getClass().getSimpleName(),
+            dependency.getSimpleName());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the order in which the passes are executed by a single worker.
+   *
+   * @throws TranslationException if the dependencies contain a cycle
+   */
+  public List<Pass> getExecutionOrder() throws TranslationException {
+    List<Pass> order = new ArrayList<>();
+    int[] missing = countDependencies();
+    PriorityQueue<Integer> ready = getInitiallyReady(missing);
+
+    while (!ready.isEmpty()) {
+      int current = ready.poll();
+      order.add(passes.get(current));
+      for (int dependent : dependents.get(current)) {
+        if (--missing[dependent] == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+
+    if (order.size() < passes.size()) {
+      throw new TranslationException(
+          "Cyclic dependencies between passes: "
+              + passes.stream()
+                  .filter(p -> !order.contains(p))
+                  .map(p -> p.getClass().getSimpleName())
+                  .collect(Collectors.joining(", ")));
+    }
+    return order;
+  }
+
+  /**
+   * Executes all passes on the given result.
+   *
+   * @param result the translation result the passes work on
+   * @param started collects every pass that has been started, e.g. for a later cleanup
+   * @throws TranslationException if the dependencies contain a cycle
+   */
+  public void run(TranslationResult result, Collection<Pass> started)
+      throws TranslationException {
+    List<Pass> order = getExecutionOrder();
+
+    if (workers == 1 || passes.size() < 2) {
+      for (Pass pass : order) {
+        if (result.isCancelled()) {
+          log.warn("Analysis interrupted, stopping Pass evaluation");
+          return;
+        }
+        started.add(pass);
+        execute(pass, result);
+      }
+    } else {
+      runParallel(result, started);
+    }
+  }
+
+  private void runParallel(TranslationResult result, Collection<Pass> started)
+      throws TranslationException {
+    // passes running on the workers need the same type context as the calling thread
+    TypeManager typeManager = result.getTypeManager();
+    LanguageFrontend frontend = typeManager.getLanguageFrontend();
+
+    int[] missing = countDependencies();
+    PriorityQueue<Integer> ready = getInitiallyReady(missing);
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, passes.size()));
+    CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+    try {
+      int running = 0;
+      while (!ready.isEmpty() || running > 0) {
+        while (!ready.isEmpty() && !result.isCancelled()) {
+          int next = ready.poll();
+          Pass pass = passes.get(next);
+          started.add(pass);
+          completion.submit(
+              () -> {
+                TypeManager.setInstance(typeManager);
+                typeManager.setLanguageFrontend(frontend);
+                try {
+                  execute(pass, result);
+                } finally {
+                  typeManager.cleanup();
+                  TypeManager.clearInstance();
+                }
+                return next;
+              });
+          running++;
+        }
+        if (running == 0) {
+          log.warn("Analysis interrupted, stopping Pass evaluation");
+          return;
+        }
+
+        int finished = completion.take().get();
+        running--;
+        for (int dependent : dependents.get(finished)) {
+          if (--missing[dependent] == 0) {
+            ready.add(dependent);
+          }
+        }
+      }
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      } else if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw new TranslationException(ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TranslationException(ex);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void execute(Pass pass, TranslationResult result) {
+    Benchmark bench = new Benchmark(pass.getClass(), "Executing Pass");
+    pass.accept(result);
+    bench.stop();
+  }
+
+  private int[] countDependencies() {
+    int[] missing = new int[passes.size()];
+    for (int i = 0; i < passes.size(); i++) {
+      missing[i] = dependencies.get(i).size();
+    }
+    return missing;
+  }
+
+  private PriorityQueue<Integer> getInitiallyReady(int[] missing) {
+    PriorityQueue<Integer> ready = new PriorityQueue<>();
+    for (int i = 0; i < missing.length; i++) {
+      if (missing[i] == 0) {
+        ready.add(i);
+      }
+    }
+    return ready;
+  }
+}
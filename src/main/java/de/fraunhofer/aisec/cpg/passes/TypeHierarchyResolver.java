@@ -28,22 +28,14 @@ package de.fraunhofer.aisec.cpg.passes;
 
 import de.fraunhofer.aisec.cpg.TranslationResult;
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
+import de.fraunhofer.aisec.cpg.graph.DeclarationIndex;
 import de.fraunhofer.aisec.cpg.graph.EnumDeclaration;
-import de.fraunhofer.aisec.cpg.graph.HasType;
 import de.fraunhofer.aisec.cpg.graph.MethodDeclaration;
-import de.fraunhofer.aisec.cpg.graph.Node;
-import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
 import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
-import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Type;
-import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -60,11 +52,10 @@ import java.util.stream.Collectors;
  * which of them are overridden/implemented in the current class. See {@link
  * MethodDeclaration#getOverriddenBy()}
  */
+@DependsOn(followedBy = TypePropagationPass.class)
 public class TypeHierarchyResolver implements Pass {
 
-  private Map<String, RecordDeclaration> recordMap = new HashMap<>();
-  private List<EnumDeclaration> enums = new ArrayList<>();
-  private Map<String, RecordDeclaration> unknownTypes = new HashMap<>();
+  private DeclarationIndex index;
 
   @Override
   public LanguageFrontend getLang() {
@@ -76,21 +67,24 @@ public class TypeHierarchyResolver implements Pass {
 
   @Override
   public void accept(TranslationResult translationResult) {
-    for (TranslationUnitDeclaration tu : translationResult.getTranslationUnits()) {
-      findRecordsAndEnums(tu);
-    }
+    index = translationResult.getDeclarationIndex();
 
-    for (RecordDeclaration record : recordMap.values()) {
+    // analyze the first record of each name, but not the stubs that are created while doing so
+    List<RecordDeclaration> records =
+        index.getRecords().stream()
+            .filter(r -> index.getRecord(r.getName()) == r)
+            .collect(Collectors.toList());
+    for (RecordDeclaration record : records) {
       Set<RecordDeclaration> supertypeRecords = findSupertypeRecords(record);
       List<MethodDeclaration> allMethodsFromSupertypes =
           getAllMethodsFromSupertypes(supertypeRecords);
       analyzeOverridingMethods(record, allMethodsFromSupertypes);
     }
 
-    for (EnumDeclaration enumDecl : enums) {
+    for (EnumDeclaration enumDecl : index.getEnums()) {
       Set<RecordDeclaration> directSupertypeRecords =
           enumDecl.getSuperTypes().stream()
-              .map(s -> recordMap.getOrDefault(s.toString(), null))
+              .map(s -> index.getRecord(s.toString()))
               .filter(Objects::nonNull)
               .collect(Collectors.toSet());
       Set<RecordDeclaration> allSupertypes =
@@ -100,40 +94,6 @@ public class TypeHierarchyResolver implements Pass {
               .collect(Collectors.toSet());
       enumDecl.setSuperTypeDeclarations(allSupertypes);
     }
-
-    if (!unknownTypes.isEmpty()) {
-      // Get the translation unit holding all unknown declarations, or create a new one if necessary
-      TranslationUnitDeclaration unknownDeclarations =
-          translationResult.getTranslationUnits().stream()
-              .filter(tu -> tu.getName().equals("unknown declarations"))
-              .findFirst()
-              .orElseGet(() -> createUnknownTranslationUnit(translationResult));
-      unknownDeclarations.setDeclarations(new ArrayList<>(unknownTypes.values()));
-      translationResult.getTranslationUnits().add(unknownDeclarations);
-      recordMap.putAll(unknownTypes);
-    }
-
-    translationResult.getTranslationUnits().forEach(this::refreshType);
-  }
-
-  private void findRecordsAndEnums(Node node) {
-    if (node instanceof RecordDeclaration) {
-      recordMap.putIfAbsent(node.getName(), (RecordDeclaration) node);
-    } else if (node instanceof EnumDeclaration) {
-      enums.add((EnumDeclaration) node);
-    }
-    for (Node child : SubgraphWalker.getAstChildren(node)) {
-      findRecordsAndEnums(child);
-    }
-  }
-
-  private void refreshType(Node node) {
-    for (Node child : SubgraphWalker.getAstChildren(node)) {
-      refreshType(child);
-    }
-    if (node instanceof HasType) {
-      ((HasType) node).refreshType();
-    }
   }
 
   private List<MethodDeclaration> getAllMethodsFromSupertypes(
@@ -147,20 +107,7 @@ public class TypeHierarchyResolver implements Pass {
   private Set<RecordDeclaration> findSupertypeRecords(RecordDeclaration record) {
     Set<RecordDeclaration> localSuperTypeDeclarations =
         record.getSuperTypes().stream()
-            .map(
-                t -> {
-                  if (recordMap.containsKey(t.getTypeName())) {
-                    return recordMap.get(t.getTypeName());
-                  } else {
-                    if (!unknownTypes.containsKey(t.getTypeName())) {
-                      unknownTypes.put(
-                          t.getTypeName(),
-                          NodeBuilder.newRecordDeclaration(
-                              t.getTypeName(), Collections.emptyList(), "class", ""));
-                    }
-                    return unknownTypes.get(t.getTypeName());
-                  }
-                })
+            .map(t -> index.getOrCreateStub(t.getTypeName()))
             .collect(Collectors.toSet());
     HashSet<RecordDeclaration> allSupertypeRecords = new HashSet<>(localSuperTypeDeclarations);
     for (RecordDeclaration superType : localSuperTypeDeclarations) {
@@ -192,7 +139,6 @@ public class TypeHierarchyResolver implements Pass {
 
   @Override
   public void cleanup() {
-    this.unknownTypes.clear();
-    this.unknownTypes = null;
+    this.index = null;
   }
 }
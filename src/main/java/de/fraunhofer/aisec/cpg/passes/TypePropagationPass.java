@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.passes;
+
+import de.fraunhofer.aisec.cpg.TranslationResult;
+import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
+import de.fraunhofer.aisec.cpg.graph.HasType;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.graph.TypePropagation;
+import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Propagates the types of all nodes to their {@link HasType.TypeListener}s until a fixpoint is
+ * reached, e.g. after the {@link TypeHierarchyResolver} has made new supertypes known.
+ *
+ * <p>The propagation itself is done by {@link TypePropagation}. This pass only seeds it with every
+ * node of the graph, children before their parents, and records how much work was necessary.
+ */
+@DependsOn(TypeHierarchyResolver.class)
+public class TypePropagationPass implements Pass {
+
+  private static final Logger log = LoggerFactory.getLogger(TypePropagationPass.class);
+
+  private long notifications;
+  private long iterations;
+
+  @Override
+  public LanguageFrontend getLang() {
+    return null;
+  }
+
+  @Override
+  public void setLang(LanguageFrontend lang) {}
+
+  @Override
+  public void accept(TranslationResult translationResult) {
+    List<HasType> sources = new ArrayList<>();
+    for (TranslationUnitDeclaration tu : new ArrayList<>(translationResult.getTranslationUnits())) {
+      SubgraphWalker.postOrder(tu)
+          .filter(HasType.class::isInstance)
+          .map(HasType.class::cast)
+          .forEach(sources::add);
+    }
+
+    TypePropagation propagation = TypePropagation.getInstance();
+    long notificationsBefore = propagation.getNotifications();
+    long iterationsBefore = propagation.getIterations();
+    propagation.refresh(sources);
+    notifications = propagation.getNotifications() - notificationsBefore;
+    iterations = propagation.getIterations() - iterationsBefore;
+
+    log.debug(
+        "Propagated types of {} nodes: {} notifications merged into {} iterations",
+        sources.size(),
+        notifications,
+        iterations);
+  }
+
+  /** Returns the number of notifications queued during the last run of this pass. */
+  public long getNotifications() {
+    return notifications;
+  }
+
+  /** Returns the number of notifications delivered to listeners during the last run. */
+  public long getIterations() {
+    return iterations;
+  }
+
+  @Override
+  public void cleanup() {}
+}
@@ -29,6 +29,7 @@ package de.fraunhofer.aisec.cpg.passes;
 import de.fraunhofer.aisec.cpg.TranslationResult;
 import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
 import de.fraunhofer.aisec.cpg.graph.Declaration;
+import de.fraunhofer.aisec.cpg.graph.DeclarationIndex;
 import de.fraunhofer.aisec.cpg.graph.DeclaredReferenceExpression;
 import de.fraunhofer.aisec.cpg.graph.EnumDeclaration;
 import de.fraunhofer.aisec.cpg.graph.FieldDeclaration;
@@ -44,13 +45,14 @@ import de.fraunhofer.aisec.cpg.graph.Type;
 import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import de.fraunhofer.aisec.cpg.graph.ValueDeclaration;
 import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker.ScopedWalker;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -67,8 +69,9 @@ import org.slf4j.LoggerFactory;
  * references to fields that are inherited from a superclass and thus not declared in the actual
  * base class. When base or member declarations are not found in the graph, a new "dummy" {@link
  * FieldDeclaration} is being created that is then used to collect all usages to the same unknown
- * declaration. {@link DeclaredReferenceExpression} stubs are removed from the graph after being
- * resolved.
+ * declaration. Dummies of unknown types are added to their stub, see {@link
+ * DeclarationIndex#getOrCreateStub(String)}. {@link DeclaredReferenceExpression} stubs are removed
+ * from the graph after being resolved.
  *
  * <p>A local variable access is modeled directly with a {@link DeclaredReferenceExpression}. This
  * step of the pass doesn't remove the {@link DeclaredReferenceExpression} nodes like in the field
@@ -76,12 +79,18 @@ import org.slf4j.LoggerFactory;
  *
  * @author samuel
  */
+@DependsOn({TypeHierarchyResolver.class, ImportResolver.class})
 public class VariableUsageResolver implements Pass {
 
   private static final Logger log = LoggerFactory.getLogger(VariableUsageResolver.class);
   private Map<Type, List<Type>> superTypesMap = new HashMap<>();
   private Map<Type, RecordDeclaration> recordMap = new HashMap<>();
   private Map<Type, EnumDeclaration> enumMap = new HashMap<>();
+  /** The member tables of records, see {@link #getMemberTable(Type)}. */
+  private Map<Type, MemberTable> memberTables = new HashMap<>();
+  /** The records whose member tables contain the fields of a type, by that type. */
+  private Map<Type, List<Type>> inheritors = new HashMap<>();
+  private DeclarationIndex index;
   private ScopedWalker walker;
 
   @Override
@@ -94,6 +103,9 @@ public class VariableUsageResolver implements Pass {
     }
     this.enumMap.clear();
     this.enumMap = null;
+    this.memberTables.clear();
+    this.inheritors.clear();
+    this.index = null;
     this.walker = null;
   }
 
@@ -107,14 +119,23 @@ public class VariableUsageResolver implements Pass {
 
   @Override
   public void accept(TranslationResult result) {
+    index = result.getDeclarationIndex();
+    for (RecordDeclaration record : index.getRecords()) {
+      recordMap.putIfAbsent(new Type(record.getName()), record);
+    }
+    for (EnumDeclaration enumDeclaration : index.getEnums()) {
+      enumMap.putIfAbsent(new Type(enumDeclaration.getName()), enumDeclaration);
+    }
+
     walker = new ScopedWalker();
 
     for (TranslationUnitDeclaration tu : result.getTranslationUnits()) {
       walker.clearCallbacks();
       walker.registerHandler(
           (currClass, currScope, currNode) -> walker.collectDeclarations(tu, currNode));
-      walker.registerHandler(this::findRecordsAndEnums);
       walker.iterate(tu);
+      // declarations of shared headers are visible in the whole unit
+      tu.getSharedDeclarations().forEach(d -> walker.collectDeclarations(tu, d));
     }
 
     Map<Type, List<Type>> currSuperTypes =
@@ -123,7 +144,8 @@ public class VariableUsageResolver implements Pass {
                 Collectors.toMap(r -> new Type(r.getName()), RecordDeclaration::getSuperTypes));
     superTypesMap.putAll(currSuperTypes);
 
-    for (TranslationUnitDeclaration tu : result.getTranslationUnits()) {
+    // stubs of unknown types may add a translation unit while resolving
+    for (TranslationUnitDeclaration tu : List.copyOf(result.getTranslationUnits())) {
       walker.clearCallbacks();
       walker.registerHandler(this::resolveFieldUsages);
       walker.registerHandler(this::resolveLocalVarUsage);
@@ -131,22 +153,11 @@ public class VariableUsageResolver implements Pass {
     }
   }
 
-  private void findRecordsAndEnums(Node node) {
-    if (node instanceof RecordDeclaration) {
-      Type type = new Type(node.getName());
-      recordMap.putIfAbsent(type, (RecordDeclaration) node);
-    } else if (node instanceof EnumDeclaration) {
-      Type type = new Type(node.getName());
-      enumMap.putIfAbsent(type, (EnumDeclaration) node);
-    }
-  }
-
   private void resolveLocalVarUsage(Type currentClass, Node currentScope, Node current) {
     if (current instanceof DeclaredReferenceExpression) {
-      List<ValueDeclaration> currDeclarations = walker.getDeclarationsForScope(currentScope);
       DeclaredReferenceExpression ref = (DeclaredReferenceExpression) current;
       Optional<? extends ValueDeclaration> refersTo =
-          currDeclarations.stream().filter(v -> v.getName().equals(ref.getName())).findFirst();
+          Optional.ofNullable(walker.getDeclarationForScope(currentScope, ref.getName()));
 
       // only add new nodes for non-static unknown
       if (!(current instanceof StaticReferenceExpression)
@@ -211,7 +222,7 @@ public class VariableUsageResolver implements Pass {
     // check if we have this type as a class in our graph. If so, we can refer to its "this"
     // field
     if (recordMap.containsKey(reference.getType())) {
-      return recordMap.get(reference.getType()).getThis();
+      return getMemberTable(reference.getType()).thisField;
     } else {
       log.info(
           "Type declaration for {} not found in graph, using dummy to collect all " + "usages",
@@ -222,36 +233,58 @@ public class VariableUsageResolver implements Pass {
 
   private ValueDeclaration resolveMember(
       Type containingClass, DeclaredReferenceExpression reference) {
-    Optional<FieldDeclaration> member =
+    FieldDeclaration member =
         TypeManager.getInstance().isUnknown(containingClass)
-            ? Optional.empty()
-            : recordMap.get(containingClass).getFields().stream()
-                .filter(f -> f.getName().equals(reference.getName()))
-                .findFirst();
-    if (member.isEmpty()) {
-      member =
-          superTypesMap.getOrDefault(containingClass, Collections.emptyList()).stream()
-              .map(recordMap::get)
-              .filter(Objects::nonNull)
-              .flatMap(r -> r.getFields().stream())
-              .filter(f -> f.getName().equals(reference.getName()))
-              .findFirst();
+            ? null
+            : getMemberTable(containingClass).fields.get(reference.getName());
+    return member != null ? member : handleUnknownDeclaration(containingClass, reference);
+  }
+
+  /**
+   * Returns the member table of a record. It holds the fields of the record and all fields it
+   * inherits, unless they are hidden by a field of the same name in a closer type. The table is
+   * built on first use, after the type hierarchy of all records is known.
+   */
+  private MemberTable getMemberTable(Type type) {
+    MemberTable cached = memberTables.get(type);
+    if (cached != null) {
+      return cached;
+    }
+
+    MemberTable table = new MemberTable();
+    RecordDeclaration record = recordMap.get(type);
+    if (record != null) {
+      record.getFields().forEach(f -> table.fields.putIfAbsent(f.getName(), f));
+      table.thisField = table.fields.get("this");
     }
-    // Attention: using orElse instead of orElseGet will always invoke unknown declaration handling!
-    return member.orElseGet(() -> handleUnknownDeclaration(containingClass, reference));
+
+    // closer supertypes first, so that their fields hide those further up in the hierarchy
+    Set<Type> visited = new HashSet<>(Set.of(type));
+    Deque<Type> worklist = new ArrayDeque<>(superTypesMap.getOrDefault(type, List.of()));
+    while (!worklist.isEmpty()) {
+      Type superType = worklist.poll();
+      if (!visited.add(superType)) {
+        continue;
+      }
+      inheritors.computeIfAbsent(superType, t -> new ArrayList<>()).add(type);
+      RecordDeclaration superRecord = recordMap.get(superType);
+      if (superRecord != null) {
+        superRecord.getFields().forEach(f -> table.fields.putIfAbsent(f.getName(), f));
+      }
+      worklist.addAll(superTypesMap.getOrDefault(superType, List.of()));
+    }
+
+    memberTables.put(type, table);
+    return table;
   }
 
   private FieldDeclaration handleUnknownDeclaration(
       Type base, DeclaredReferenceExpression reference) {
-    recordMap.putIfAbsent(
-        base,
-        NodeBuilder.newRecordDeclaration(
-            base.getTypeName(), new ArrayList<>(), Type.UNKNOWN_TYPE, Type.UNKNOWN_TYPE));
-    // fields.putIfAbsent(base, new ArrayList<>());
-    List<FieldDeclaration> declarations = recordMap.get(base).getFields();
-    Optional<FieldDeclaration> target =
-        declarations.stream().filter(f -> f.getName().equals(reference.getName())).findFirst();
-    if (target.isEmpty()) {
+    List<FieldDeclaration> declarations =
+        recordMap.computeIfAbsent(base, t -> index.getOrCreateStub(t.getTypeName())).getFields();
+    MemberTable table = getMemberTable(base);
+    FieldDeclaration target = table.fields.get(reference.getName());
+    if (target == null) {
       FieldDeclaration declaration =
           NodeBuilder.newFieldDeclaration(
               reference.getName(),
@@ -263,9 +296,22 @@ public class VariableUsageResolver implements Pass {
       declarations.add(declaration);
       declaration.setDummy(true);
       // lang.getScopeManager().addValueDeclaration(declaration);
+
+      table.fields.put(declaration.getName(), declaration);
+      for (Type inheritor : inheritors.getOrDefault(base, List.of())) {
+        memberTables.get(inheritor).fields.putIfAbsent(declaration.getName(), declaration);
+      }
       return declaration;
     } else {
-      return target.get();
+      return target;
     }
   }
+
+  /** The fields that are accessible in a record, by their name. */
+  private static class MemberTable {
+
+    private final Map<String, FieldDeclaration> fields = new HashMap<>();
+    /** The "this" field declared by the record itself. */
+    private FieldDeclaration thisField;
+  }
 }
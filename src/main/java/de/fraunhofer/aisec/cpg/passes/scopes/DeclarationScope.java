@@ -27,9 +27,14 @@
 package de.fraunhofer.aisec.cpg.passes.scopes;
 
 import de.fraunhofer.aisec.cpg.graph.Node;
+import de.fraunhofer.aisec.cpg.graph.TypeManager;
 import de.fraunhofer.aisec.cpg.graph.ValueDeclaration;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Is a scope where local variables can be declared and independent from specific language
@@ -37,7 +42,14 @@ import java.util.List;
  */
 public class DeclarationScope extends Scope {
 
-  private List<ValueDeclaration> valueDeclarations = new ArrayList<>();
+  private final Declarations valueDeclarations = new Declarations();
+  /**
+   * The first declaration of each name in {@link #valueDeclarations}, or null if it has to be
+   * built again, because the declarations were modified or renamed.
+   */
+  private Map<String, ValueDeclaration> valueDeclarationsByName = null;
+  /** The number of renamed declarations when the index was built, see {@link TypeManager}. */
+  private int renamedDeclarations;
 
   public DeclarationScope(Node node) {
     this.astNode = node;
@@ -48,10 +60,75 @@ public class DeclarationScope extends Scope {
   }
 
   public void setValueDeclarations(List<ValueDeclaration> valueDeclarations) {
-    this.valueDeclarations = valueDeclarations;
+    this.valueDeclarations.clear();
+    this.valueDeclarations.addAll(valueDeclarations);
   }
 
   public void addValueDeclaration(ValueDeclaration valueDeclaration) {
     this.valueDeclarations.add(valueDeclaration);
   }
+
+  /** Returns the first declaration of this scope with the given name, if any. */
+  @Nullable
+  public ValueDeclaration getValueDeclaration(String name) {
+    int renamed = TypeManager.getInstance().getRenamedDeclarations();
+    if (valueDeclarationsByName == null || renamedDeclarations != renamed) {
+      valueDeclarationsByName = new HashMap<>();
+      renamedDeclarations = renamed;
+      for (ValueDeclaration declaration : valueDeclarations) {
+        valueDeclarationsByName.putIfAbsent(declaration.getName(), declaration);
+      }
+    }
+    return valueDeclarationsByName.get(name);
+  }
+
+  /**
+   * The declarations of the scope. Appending a declaration updates the index by name, any other
+   * modification drops it.
+   */
+  private class Declarations extends AbstractList<ValueDeclaration> {
+
+    private final List<ValueDeclaration> list = new ArrayList<>();
+
+    @Override
+    public ValueDeclaration get(int index) {
+      return list.get(index);
+    }
+
+    @Override
+    public int size() {
+      return list.size();
+    }
+
+    @Override
+    public ValueDeclaration set(int index, ValueDeclaration element) {
+      valueDeclarationsByName = null;
+      return list.set(index, element);
+    }
+
+    @Override
+    public void add(int index, ValueDeclaration element) {
+      if (index != list.size()) {
+        valueDeclarationsByName = null;
+      } else if (valueDeclarationsByName != null) {
+        valueDeclarationsByName.putIfAbsent(element.getName(), element);
+      }
+      list.add(index, element);
+      modCount++;
+    }
+
+    @Override
+    public ValueDeclaration remove(int index) {
+      valueDeclarationsByName = null;
+      modCount++;
+      return list.remove(index);
+    }
+
+    @Override
+    public void clear() {
+      valueDeclarationsByName = null;
+      modCount++;
+      list.clear();
+    }
+  }
 }
@@ -50,11 +50,12 @@ import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Statement;
 import de.fraunhofer.aisec.cpg.graph.SwitchStatement;
 import de.fraunhofer.aisec.cpg.graph.TryStatement;
+import de.fraunhofer.aisec.cpg.graph.TypeHierarchy;
 import de.fraunhofer.aisec.cpg.graph.ValueDeclaration;
 import de.fraunhofer.aisec.cpg.graph.VariableDeclaration;
 import de.fraunhofer.aisec.cpg.graph.WhileStatement;
+import de.fraunhofer.aisec.cpg.helpers.NodeMap;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -71,8 +72,10 @@ public class ScopeManager {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ScopeManager.class);
 
-  private Map<Node, Scope> scopeMap = new HashMap<>();
+  private Map<Node, Scope> scopeMap = new NodeMap<>();
   private Scope currentScope = null;
+  /** Index over the records of this scope manager, created on first use and then maintained. */
+  private TypeHierarchy typeHierarchy = null;
   private LanguageFrontend lang;
 
   public ScopeManager(LanguageFrontend lang) {
@@ -87,6 +90,13 @@ public class ScopeManager {
       return;
     }
     scopeMap.put(scope.astNode, scope);
+    if (scope instanceof RecordScope) {
+      synchronized (this) {
+        if (typeHierarchy != null) {
+          typeHierarchy.add((RecordDeclaration) scope.getAstNode());
+        }
+      }
+    }
     if (currentScope != null) currentScope.getChildren().add(scope);
     scope.setParent(currentScope);
     currentScope = scope;
@@ -112,7 +122,8 @@ public class ScopeManager {
   }
 
   public void addGlobal(VariableDeclaration global) {
-    getGlobals().add(global);
+    GlobalScope globalS = (GlobalScope) getFirstScopeThat(scope -> scope instanceof GlobalScope);
+    globalS.addValueDeclaration(global);
   }
 
   public void enterScopeIfExists(Node nodeToScope) {
@@ -216,6 +227,24 @@ public class ScopeManager {
     return scopes;
   }
 
+  /**
+   * Returns an index over the hierarchy of all records known to this scope manager. The index is
+   * built once and then kept up to date as records are added or the super types of a record change.
+   *
+   * @return the type hierarchy
+   */
+  public synchronized TypeHierarchy getTypeHierarchy() {
+    if (typeHierarchy == null) {
+      typeHierarchy =
+          new TypeHierarchy(
+              getUniqueScopesThat(RecordScope.class::isInstance, s -> s.getAstNode().getName())
+                  .stream()
+                  .map(s -> (RecordDeclaration) s.getAstNode())
+                  .collect(Collectors.toList()));
+    }
+    return typeHierarchy;
+  }
+
   public void addBreakStatment(BreakStatement breakStatement) {
     if (breakStatement.getLabel() == null) {
       Scope scope = getFirstScopeThat(this::isBreakable);
@@ -352,26 +381,16 @@ public class ScopeManager {
   }
 
   private ValueDeclaration resolve(Scope scope, DeclaredReferenceExpression ref) {
-    if (scope instanceof DeclarationScope) {
-      for (ValueDeclaration valDecl : ((DeclarationScope) scope).getValueDeclarations()) {
-        if (valDecl.getName().equals(ref.getName())) return valDecl;
-        /*
-        if(valDecl instanceof ParamVariableDeclaration){
-          ParamVariableDeclaration param = (ParamVariableDeclaration)valDecl;
-          if(param.getName().equals(ref.getName())) return param;
-        }else if(valDecl instanceof VariableDeclaration){
-          VariableDeclaration variable = (VariableDeclaration) valDecl;
-          if(variable.getName().equals(ref.getName())) return variable;
-        }else if(valDecl instanceof FieldDeclaration){
-          FieldDeclaration field = (FieldDeclaration) valDecl;
-
-        }else if(valDecl instanceof FunctionDeclaration){
-          FunctionDeclaration function = (FunctionDeclaration) valDecl;
-
-        }*/
+    for (Scope searchScope = scope; searchScope != null; searchScope = searchScope.getParent()) {
+      if (searchScope instanceof DeclarationScope) {
+        ValueDeclaration declaration =
+            ((DeclarationScope) searchScope).getValueDeclaration(ref.getName());
+        if (declaration != null) {
+          return declaration;
+        }
       }
     }
-    return scope.getParent() != null ? resolve(scope.getParent(), ref) : null;
+    return null;
   }
 
   public Scope getScopeOfStatment(Node node) {
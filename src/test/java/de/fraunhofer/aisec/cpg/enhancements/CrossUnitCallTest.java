@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.TranslationManager;
+import de.fraunhofer.aisec.cpg.graph.CallExpression;
+import de.fraunhofer.aisec.cpg.graph.FunctionDeclaration;
+import de.fraunhofer.aisec.cpg.graph.NamespaceDeclaration;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.helpers.Util;
+import java.io.File;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CrossUnitCallTest {
+
+  @Test
+  void testCallsAreResolvedAcrossUnits() throws Exception {
+    File topLevel = new File("src/test/resources/crosstu");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(new File(topLevel, "main.c"), new File(topLevel, "util.c"))
+            .topLevel(topLevel)
+            .defaultPasses()
+            .failOnError(true)
+            .build();
+    List<TranslationUnitDeclaration> units =
+        TranslationManager.builder().config(config).build().analyze().get().getTranslationUnits();
+
+    FunctionDeclaration prototype = units.get(0).getDeclarationAs(0, FunctionDeclaration.class);
+    FunctionDeclaration add = units.get(1).getDeclarationAs(0, FunctionDeclaration.class);
+    FunctionDeclaration subtract = units.get(1).getDeclarationAs(1, FunctionDeclaration.class);
+    assertFalse(prototype.hasBody());
+    assertSame(add, prototype.getDefinition());
+
+    List<CallExpression> calls = Util.subnodesOfType(units.get(0), CallExpression.class);
+    assertEquals(4, calls.size());
+
+    // the prototype is visible in main.c and is linked to its definition in util.c
+    List<FunctionDeclaration> invokes = calls.get(0).getInvokes();
+    assertEquals(2, invokes.size());
+    assertSame(prototype, invokes.get(0));
+    assertSame(add, invokes.get(1));
+
+    // subtract is implicitly declared in main.c, so the definition of any unit is used
+    assertEquals(1, calls.get(1).getInvokes().size());
+    assertSame(subtract, calls.get(1).getInvokes().get(0));
+
+    // static functions are only linked and called within their own unit
+    FunctionDeclaration twicePrototype =
+        units.get(0).getDeclarationAs(1, FunctionDeclaration.class);
+    FunctionDeclaration twice = units.get(0).getDeclarationAs(3, FunctionDeclaration.class);
+    FunctionDeclaration otherTwice = units.get(1).getDeclarationAs(2, FunctionDeclaration.class);
+    assertTrue(twicePrototype.hasInternalLinkage());
+    assertTrue(otherTwice.hasInternalLinkage());
+    assertFalse(add.hasInternalLinkage());
+    assertSame(twice, twicePrototype.getDefinition());
+
+    invokes = calls.get(2).getInvokes();
+    assertEquals(2, invokes.size());
+    assertSame(twicePrototype, invokes.get(0));
+    assertSame(twice, invokes.get(1));
+
+    // scale is static in util.c, so it is not a target of the implicit declaration in main.c
+    assertTrue(calls.get(3).getInvokes().isEmpty());
+
+    List<CallExpression> utilCalls = Util.subnodesOfType(units.get(1), CallExpression.class);
+    assertEquals(1, utilCalls.size());
+    assertEquals(List.of(otherTwice), utilCalls.get(0).getInvokes());
+  }
+
+  @Test
+  void testCallsAreResolvedByQualifiedName() throws Exception {
+    File file = new File("src/test/resources/crosstu/namespaces.cpp");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(file)
+            .topLevel(file.getParentFile())
+            .defaultPasses()
+            .failOnError(true)
+            .build();
+    List<TranslationUnitDeclaration> units =
+        TranslationManager.builder().config(config).build().analyze().get().getTranslationUnits();
+    TranslationUnitDeclaration tu = units.get(0);
+
+    NamespaceDeclaration namespace = tu.getDeclarationAs(0, NamespaceDeclaration.class);
+    FunctionDeclaration namespacedAdd = namespace.getDeclarationAs(0, FunctionDeclaration.class);
+    FunctionDeclaration add = tu.getDeclarationAs(1, FunctionDeclaration.class);
+
+    List<CallExpression> calls = Util.subnodesOfType(tu, CallExpression.class);
+    assertEquals(2, calls.size());
+    assertEquals(List.of(namespacedAdd), calls.get(0).getInvokes());
+    assertEquals(List.of(add), calls.get(1).getInvokes());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationResult;
+import de.fraunhofer.aisec.cpg.graph.DeclarationIndex;
+import de.fraunhofer.aisec.cpg.graph.EnumDeclaration;
+import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
+import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
+import de.fraunhofer.aisec.cpg.graph.Region;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class DeclarationIndexTest {
+
+  @Test
+  void testStubsAreShared() {
+    TranslationResult result = new TranslationResult(null);
+    TranslationUnitDeclaration tu = NodeBuilder.newTranslationUnitDeclaration("A.java", "");
+    RecordDeclaration a = NodeBuilder.newRecordDeclaration("A", Collections.emptyList(), "class", "");
+    tu.add(a);
+    result.getTranslationUnits().add(tu);
+
+    DeclarationIndex index = result.getDeclarationIndex();
+    assertSame(index, result.getDeclarationIndex());
+    assertSame(a, index.getRecord("A"));
+    assertSame(a, index.getOrCreateStub("A"));
+    assertNull(index.getRecord("B"));
+    assertEquals(1, result.getTranslationUnits().size());
+
+    // stubs of unknown types are created once and held by a single translation unit
+    RecordDeclaration b = index.getOrCreateStub("B");
+    RecordDeclaration c = index.getOrCreateStub("C");
+    assertSame(b, index.getOrCreateStub("B"));
+    assertSame(b, index.getRecord("B"));
+    assertEquals(3, index.getRecords().size());
+    assertEquals(2, result.getTranslationUnits().size());
+
+    TranslationUnitDeclaration unknown = result.getTranslationUnits().get(1);
+    assertEquals(DeclarationIndex.UNKNOWN_DECLARATIONS, unknown.getName());
+    assertTrue(unknown.isDummy());
+    assertTrue(unknown.getDeclarations().contains(b));
+    assertTrue(unknown.getDeclarations().contains(c));
+  }
+
+  @Test
+  void testRecordOrEnumInUnitOrder() {
+    TranslationResult result = new TranslationResult(null);
+    TranslationUnitDeclaration first = NodeBuilder.newTranslationUnitDeclaration("A.java", "");
+    EnumDeclaration enumeration = NodeBuilder.newEnumDeclaration("A", "", new Region());
+    first.add(enumeration);
+    TranslationUnitDeclaration second = NodeBuilder.newTranslationUnitDeclaration("B.java", "");
+    RecordDeclaration record =
+        NodeBuilder.newRecordDeclaration("A", Collections.emptyList(), "class", "");
+    second.add(record);
+    result.getTranslationUnits().add(first);
+    result.getTranslationUnits().add(second);
+
+    DeclarationIndex index = result.getDeclarationIndex();
+    assertSame(enumeration, index.getRecordOrEnum("A"));
+    assertSame(record, index.getRecord("A"));
+    assertNull(index.getRecordOrEnum("B"));
+  }
+
+  @Test
+  void testStubsWhileIterating() {
+    TranslationResult result = new TranslationResult(null);
+    result.getTranslationUnits().add(NodeBuilder.newTranslationUnitDeclaration("A.java", ""));
+    DeclarationIndex index = result.getDeclarationIndex();
+
+    // passes may create stubs while other passes iterate over the translation units
+    for (TranslationUnitDeclaration tu : result.getTranslationUnits()) {
+      assertEquals("A.java", tu.getName());
+      index.getOrCreateStub("B");
+    }
+    assertEquals(2, result.getTranslationUnits().size());
+  }
+}
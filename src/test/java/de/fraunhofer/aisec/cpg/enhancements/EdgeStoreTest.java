@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.TranslationManager;
+import de.fraunhofer.aisec.cpg.graph.Node;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class EdgeStoreTest {
+
+  private List<Node> analyze(boolean freeze) throws Exception {
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(new File("src/test/resources/cfg/If.java"))
+            .defaultPasses()
+            .freezeGraph(freeze)
+            .build();
+    List<TranslationUnitDeclaration> tus =
+        TranslationManager.builder().config(config).build().analyze().get().getTranslationUnits();
+
+    return tus.stream().flatMap(SubgraphWalker::preOrder).collect(Collectors.toList());
+  }
+
+  private List<String> edges(List<Node> nodes) {
+    return nodes.stream()
+        .map(
+            n ->
+                n.getName()
+                    + n.getPrevEOG().size()
+                    + n.getNextEOG().size()
+                    + n.getPrevDFG().size()
+                    + n.getNextDFG().size())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void testFrozenEdges() throws Exception {
+    List<Node> mutable = analyze(false);
+    List<Node> frozen = analyze(true);
+
+    assertEquals(edges(mutable), edges(frozen));
+
+    Node node = frozen.stream().filter(n -> !n.getNextEOG().isEmpty()).findFirst().orElseThrow();
+    assertThrows(UnsupportedOperationException.class, () -> node.getNextEOG().add(node));
+    assertThrows(UnsupportedOperationException.class, () -> node.addNextDFG(node));
+  }
+}
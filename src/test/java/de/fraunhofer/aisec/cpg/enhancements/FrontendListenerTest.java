@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaLanguageFrontend;
+import de.fraunhofer.aisec.cpg.graph.DeclaredReferenceExpression;
+import de.fraunhofer.aisec.cpg.graph.Literal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FrontendListenerTest {
+
+  @Test
+  void testObjectsProcessedToNull() {
+    LanguageFrontend frontend =
+        new JavaLanguageFrontend(TranslationConfiguration.builder().build());
+    Object raw = new Object();
+    frontend.process(raw, null);
+
+    List<Object> matches = new ArrayList<>();
+    frontend.registerPredicateListener((from, to) -> to == null, (from, to) -> matches.add(from));
+    assertEquals(List.of(raw), matches);
+  }
+
+  @Test
+  void testReprocessedObjectsMatchOnce() {
+    LanguageFrontend frontend =
+        new JavaLanguageFrontend(TranslationConfiguration.builder().build());
+    Object raw = new Object();
+    frontend.process(raw, new Literal<>());
+    frontend.process(raw, new DeclaredReferenceExpression());
+    frontend.process(raw, new Literal<>());
+
+    List<Object> literals = new ArrayList<>();
+    frontend.registerPredicateListener(
+        Literal.class, (from, to) -> true, (from, to) -> literals.add(from));
+    assertEquals(List.of(raw), literals);
+
+    List<Object> references = new ArrayList<>();
+    frontend.registerPredicateListener(
+        DeclaredReferenceExpression.class, (from, to) -> true, (from, to) -> references.add(from));
+    assertEquals(List.of(), references);
+  }
+}
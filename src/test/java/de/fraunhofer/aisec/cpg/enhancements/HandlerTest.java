@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.github.javaparser.ast.expr.IntegerLiteralExpr;
+import com.github.javaparser.ast.expr.LiteralStringValueExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.frontends.Handler;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaLanguageFrontend;
+import de.fraunhofer.aisec.cpg.graph.Expression;
+import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HandlerTest {
+
+  /** Handles all literals with a string value by a single handler for their superclass. */
+  static class LiteralHandler
+      extends Handler<Expression, com.github.javaparser.ast.expr.Expression, JavaLanguageFrontend> {
+
+    private final List<String> handled = new ArrayList<>();
+
+    LiteralHandler(JavaLanguageFrontend lang) {
+      super(Expression::new, lang);
+      map.put(
+          LiteralStringValueExpr.class,
+          expr -> {
+            String value = ((LiteralStringValueExpr) expr).getValue();
+            handled.add(value);
+            return NodeBuilder.newDeclaredReferenceExpression(value, null, value);
+          });
+    }
+  }
+
+  @Test
+  void testHandlerOfSuperclass() {
+    TranslationConfiguration config = TranslationConfiguration.builder().build();
+    LiteralHandler handler = new LiteralHandler(new JavaLanguageFrontend(config));
+
+    // the handler of the superclass is resolved for each class, and then found in the cache
+    assertEquals("1", handler.handle(new IntegerLiteralExpr("1")).getName());
+    assertEquals("2", handler.handle(new IntegerLiteralExpr("2")).getName());
+    assertEquals("a", handler.handle(new StringLiteralExpr("a")).getName());
+    assertEquals("b", handler.handle(new StringLiteralExpr("b")).getName());
+    assertEquals(List.of("1", "2", "a", "b"), handler.handled);
+
+    // classes without a handler keep falling back to the default node
+    for (int i = 0; i < 2; i++) {
+      Expression unknown = handler.handle(new NameExpr("x"));
+      assertEquals(Expression.class, unknown.getClass());
+      assertNull(unknown.getName());
+    }
+    assertEquals(4, handler.handled.size());
+  }
+}
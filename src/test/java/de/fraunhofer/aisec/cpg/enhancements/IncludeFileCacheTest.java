@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.TranslationManager;
+import de.fraunhofer.aisec.cpg.TranslationResult;
+import de.fraunhofer.aisec.cpg.frontends.cpp.CXXLanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.cpp.IncludeFileCache;
+import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
+import de.fraunhofer.aisec.cpg.graph.Region;
+import de.fraunhofer.aisec.cpg.graph.SourceCode;
+import de.fraunhofer.aisec.cpg.helpers.Util;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
+import org.junit.jupiter.api.Test;
+
+class IncludeFileCacheTest {
+
+  @Test
+  void testLeastRecentlyUsedFilesAreEvicted() throws IOException {
+    Path a = Files.createTempFile("a", ".h");
+    Path b = Files.createTempFile("b", ".h");
+    Files.write(a, "int a;".getBytes(StandardCharsets.UTF_8));
+    Files.write(b, "int b;".getBytes(StandardCharsets.UTF_8));
+
+    // room for exactly two files
+    IncludeFileCache cache = new IncludeFileCache(12);
+    cache.getContent(a.toString());
+    cache.getContent(b.toString());
+    assertEquals(0, cache.getHits());
+    assertEquals(2, cache.getMisses());
+
+    InternalFileContent content = cache.getContent(a.toString());
+    assertNotNull(content);
+    char[] chars = new char[content.getSource().getLength()];
+    content.getSource().arraycopy(0, chars, 0, chars.length);
+    assertEquals("int a;", new String(chars));
+    assertEquals(1, cache.getHits());
+
+    // a was used more recently than b, so b has to make room for the longer content
+    Files.write(a, "int aa;".getBytes(StandardCharsets.UTF_8));
+    a.toFile().setLastModified(a.toFile().lastModified() + 1000);
+    cache.getContent(a.toString());
+    assertEquals(3, cache.getMisses());
+    assertEquals(7, cache.getSize());
+
+    cache.getContent(b.toString());
+    assertEquals(4, cache.getMisses());
+
+    Files.delete(a);
+    Files.delete(b);
+  }
+
+  @Test
+  void testCacheBelongsToTranslation() throws Exception {
+    File topLevel = new File("src/test/resources/sharedheaders");
+    TranslationConfiguration.Builder builder =
+        TranslationConfiguration.builder()
+            .sourceFiles(new File(topLevel, "a.cpp"), new File(topLevel, "b.cpp"))
+            .topLevel(topLevel)
+            .loadIncludes(true)
+            .failOnError(true);
+
+    TranslationResult result =
+        TranslationManager.builder()
+            .config(builder.includeCacheSize(1024).build())
+            .build()
+            .analyze()
+            .get();
+    IncludeFileCache cache =
+        (IncludeFileCache) result.getScratch().get(IncludeFileCache.class.getName());
+    assertNotNull(cache);
+    // the header is read once and served from the cache for the second file
+    assertEquals(1, cache.getMisses());
+    assertTrue(cache.getHits() >= 1);
+    // the content is released once the frontends are cleaned up
+    assertEquals(0, cache.getSize());
+
+    result =
+        TranslationManager.builder()
+            .config(builder.includeCacheSize(0).build())
+            .build()
+            .analyze()
+            .get();
+    assertFalse(result.getScratch().containsKey(IncludeFileCache.class.getName()));
+  }
+
+  @Test
+  void testHeaderSourceIsShared() throws Exception {
+    File topLevel = new File("src/test/resources/sharedheaders");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(new File(topLevel, "a.cpp"), new File(topLevel, "b.cpp"))
+            .topLevel(topLevel)
+            .loadIncludes(true)
+            .includeCacheSize(1024)
+            .failOnError(true)
+            .build();
+    TranslationResult result = TranslationManager.builder().config(config).build().analyze().get();
+
+    // both units convert the struct of the header, its code refers to the same source
+    List<RecordDeclaration> points =
+        Util.subnodesOfType(result.getTranslationUnits(), RecordDeclaration.class).stream()
+            .filter(r -> r.getName().equals("Point"))
+            .collect(Collectors.toList());
+    assertEquals(2, points.size());
+    SourceCode source = ((SourceCode.Snippet) points.get(0).getCodeSequence()).getSource();
+    assertTrue(source.getFile().endsWith("shared.h"));
+    assertSame(source, ((SourceCode.Snippet) points.get(1).getCodeSequence()).getSource());
+  }
+
+  @Test
+  void testSubregionOfHeader() throws Exception {
+    File topLevel = new File("src/test/resources/sharedheaders");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder().topLevel(topLevel).loadIncludes(true).build();
+    CXXLanguageFrontend frontend = new CXXLanguageFrontend(config);
+    RecordDeclaration point =
+        Util.subnodesOfType(frontend.parse(new File(topLevel, "a.cpp")), RecordDeclaration.class)
+            .get(0);
+
+    // the subregion is looked up in the header, not in the file that includes it
+    assertEquals(
+        "int x;", frontend.getCodeOfSubregion(point, point.getRegion(), new Region(4, 3, 4, 9)));
+  }
+}
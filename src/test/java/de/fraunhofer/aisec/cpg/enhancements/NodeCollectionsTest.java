@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.graph.Literal;
+import de.fraunhofer.aisec.cpg.graph.Node;
+import de.fraunhofer.aisec.cpg.graph.Region;
+import de.fraunhofer.aisec.cpg.graph.TypeManager;
+import de.fraunhofer.aisec.cpg.helpers.NodeMap;
+import de.fraunhofer.aisec.cpg.helpers.NodeSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NodeCollectionsTest {
+
+  @Test
+  void testIdentitySemantics() {
+    Literal<Integer> first = new Literal<>();
+    Literal<Integer> second = new Literal<>();
+    first.setRegion(new Region(1, 1, 1, 2));
+    second.setRegion(new Region(1, 1, 1, 2));
+
+    // equal by content, but still different nodes
+    assertEquals(first, second);
+
+    NodeSet set = new NodeSet();
+    assertTrue(set.add(first));
+    assertTrue(set.add(second));
+    assertFalse(set.add(first));
+    assertEquals(2, set.size());
+    assertTrue(set.remove(second));
+    assertFalse(set.contains(second));
+  }
+
+  @Test
+  void testInsertionOrder() {
+    List<Node> nodes = new ArrayList<>();
+    NodeMap<Integer> map = new NodeMap<>();
+    for (int i = 0; i < 100; i++) {
+      Node node = new Node();
+      nodes.add(node);
+      map.put(node, i);
+    }
+    for (int i = 0; i < 100; i += 2) {
+      map.remove(nodes.get(i));
+    }
+    map.put(null, -1);
+
+    List<Node> expected = new ArrayList<>();
+    for (int i = 1; i < 100; i += 2) {
+      expected.add(nodes.get(i));
+    }
+    expected.add(null);
+
+    assertEquals(expected, new ArrayList<>(map.keySet()));
+    assertEquals(-1, map.get(null));
+    assertNull(map.get(nodes.get(0)));
+  }
+
+  @Test
+  void testIdsPerTranslation() {
+    List<Node> nodes = new ArrayList<>();
+    try {
+      for (int i = 0; i < 2; i++) {
+        TypeManager.setInstance(new TypeManager());
+        nodes.add(new Node());
+        nodes.add(new Node());
+      }
+    } finally {
+      TypeManager.clearInstance();
+    }
+
+    // both translations start at id 0, the nodes are still told apart
+    assertEquals(0, nodes.get(0).getNodeId());
+    assertEquals(1, nodes.get(1).getNodeId());
+    assertEquals(0, nodes.get(2).getNodeId());
+    assertNotSame(nodes.get(0), nodes.get(2));
+
+    NodeMap<Integer> map = new NodeMap<>();
+    for (int i = 0; i < nodes.size(); i++) {
+      map.put(nodes.get(i), i);
+    }
+    assertEquals(4, map.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      assertEquals(i, map.get(nodes.get(i)));
+    }
+    map.remove(nodes.get(0));
+    assertEquals(2, map.get(nodes.get(2)));
+  }
+}
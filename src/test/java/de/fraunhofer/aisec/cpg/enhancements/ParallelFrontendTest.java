@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.TranslationManager;
+import de.fraunhofer.aisec.cpg.TranslationResult;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaLanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaTypeSolverCache;
+import de.fraunhofer.aisec.cpg.graph.Node;
+import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.graph.TypeManager;
+import de.fraunhofer.aisec.cpg.helpers.Util;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ParallelFrontendTest {
+
+  private TranslationManager manager(int workers) throws Exception {
+    Path topLevel = Path.of("src", "test", "resources", "compiling", "hierarchy");
+    File[] files =
+        Files.walk(topLevel, Integer.MAX_VALUE)
+            .map(Path::toFile)
+            .filter(File::isFile)
+            .filter(f -> f.getName().endsWith(".java"))
+            .sorted()
+            .toArray(File[]::new);
+
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(files)
+            .topLevel(topLevel.toFile())
+            .defaultPasses()
+            .frontendWorkers(workers)
+            .failOnError(true)
+            .build();
+
+    return TranslationManager.builder().config(config).build();
+  }
+
+  private List<TranslationUnitDeclaration> analyze(int workers) throws Exception {
+    return manager(workers).analyze().get().getTranslationUnits();
+  }
+
+  @Test
+  void testDeterministicOrder() throws Exception {
+    List<TranslationUnitDeclaration> sequential = analyze(1);
+    List<TranslationUnitDeclaration> parallel = analyze(4);
+
+    assertEquals(names(sequential), names(parallel));
+    assertEquals(
+        names(Util.subnodesOfType(sequential, RecordDeclaration.class)),
+        names(Util.subnodesOfType(parallel, RecordDeclaration.class)));
+  }
+
+  @Test
+  void testConcurrentTranslations() throws Exception {
+    TranslationResult alone = manager(1).analyze().get();
+
+    CompletableFuture<TranslationResult> first = manager(1).analyze();
+    CompletableFuture<TranslationResult> second = manager(1).analyze();
+
+    for (TranslationResult result : List.of(first.get(), second.get())) {
+      // node ids are allocated by the type manager of each translation, so they are the same as if
+      // the translation ran alone
+      assertEquals(nodeIds(alone), nodeIds(result));
+
+      // super types only resolve to records of the same translation
+      List<RecordDeclaration> records =
+          Util.subnodesOfType(result.getTranslationUnits(), RecordDeclaration.class);
+      assertTrue(records.stream().anyMatch(r -> !r.getSuperTypeDeclarations().isEmpty()));
+      for (RecordDeclaration record : records) {
+        for (RecordDeclaration superType : record.getSuperTypeDeclarations()) {
+          assertTrue(records.stream().anyMatch(r -> r == superType));
+        }
+      }
+    }
+    assertNotSame(first.get().getTypeManager(), second.get().getTypeManager());
+  }
+
+  @Test
+  void testJavaFrontendsOverlap() throws Exception {
+    File file = new File("src/test/resources/parallel/Empty.java");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder().sourceFiles(file).topLevel(file.getParentFile()).build();
+    JavaTypeSolverCache typeSolvers = new JavaTypeSolverCache(config);
+    JavaLanguageFrontend resolving = new JavaLanguageFrontend(config, typeSolvers);
+    JavaLanguageFrontend translating = new JavaLanguageFrontend(config, typeSolvers);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // the file needs no resolution, so it is translated while the other frontend resolves
+      Future<TranslationUnitDeclaration> unit =
+          resolving.resolve(
+              () -> {
+                Future<TranslationUnitDeclaration> translated =
+                    executor.submit(
+                        () -> {
+                          TypeManager.setInstance(new TypeManager());
+                          try {
+                            return translating.parse(file);
+                          } finally {
+                            TypeManager.clearInstance();
+                          }
+                        });
+                assertTrue(completes(translated));
+                return translated;
+              });
+
+      assertEquals(
+          List.of("Empty"), names(Util.subnodesOfType(unit.get(), RecordDeclaration.class)));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static boolean completes(Future<?> future) {
+    try {
+      future.get(30, TimeUnit.SECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      return false;
+    } catch (InterruptedException | ExecutionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private List<Integer> nodeIds(TranslationResult result) {
+    return Util.subnodesOfType(result.getTranslationUnits(), Node.class).stream()
+        .map(Node::getNodeId)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private List<String> names(List<? extends Node> nodes) {
+    return nodes.stream().map(Node::getName).collect(Collectors.toList());
+  }
+}
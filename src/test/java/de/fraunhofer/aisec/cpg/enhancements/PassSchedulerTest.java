@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.TranslationManager;
+import de.fraunhofer.aisec.cpg.TranslationResult;
+import de.fraunhofer.aisec.cpg.frontends.LanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.TranslationException;
+import de.fraunhofer.aisec.cpg.graph.Node;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
+import de.fraunhofer.aisec.cpg.passes.CallResolver;
+import de.fraunhofer.aisec.cpg.passes.ControlFlowGraphPass;
+import de.fraunhofer.aisec.cpg.passes.DependsOn;
+import de.fraunhofer.aisec.cpg.passes.FilenameMapper;
+import de.fraunhofer.aisec.cpg.passes.GraphLayer;
+import de.fraunhofer.aisec.cpg.passes.ImportResolver;
+import de.fraunhofer.aisec.cpg.passes.Pass;
+import de.fraunhofer.aisec.cpg.passes.PassScheduler;
+import de.fraunhofer.aisec.cpg.passes.TypeHierarchyResolver;
+import de.fraunhofer.aisec.cpg.passes.TypePropagationPass;
+import de.fraunhofer.aisec.cpg.passes.VariableUsageResolver;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class PassSchedulerTest {
+
+  private abstract static class RecordingPass implements Pass {
+    private final List<String> executed;
+
+    RecordingPass(List<String> executed) {
+      this.executed = executed;
+    }
+
+    @Override
+    public void accept(TranslationResult result) {
+      executed.add(getClass().getSimpleName());
+    }
+
+    @Override
+    public LanguageFrontend getLang() {
+      return null;
+    }
+
+    @Override
+    public void setLang(LanguageFrontend lang) {}
+
+    @Override
+    public void cleanup() {}
+  }
+
+  @DependsOn
+  private static class Independent extends RecordingPass {
+    Independent(List<String> executed) {
+      super(executed);
+    }
+  }
+
+  @DependsOn(Last.class)
+  private static class First extends RecordingPass {
+    First(List<String> executed) {
+      super(executed);
+    }
+  }
+
+  @DependsOn(Independent.class)
+  private static class Last extends RecordingPass {
+    Last(List<String> executed) {
+      super(executed);
+    }
+  }
+
+  private static class Undeclared extends RecordingPass {
+    Undeclared(List<String> executed) {
+      super(executed);
+    }
+  }
+
+  @DependsOn(Cyclic.class)
+  private static class Cyclic extends RecordingPass {
+    Cyclic(List<String> executed) {
+      super(executed);
+    }
+  }
+
+  @Test
+  void testDefaultPassesKeepRegistrationOrder() throws TranslationException {
+    List<Pass> passes =
+        TranslationConfiguration.builder().defaultPasses().build().getRegisteredPasses();
+
+    assertEquals(passes, new PassScheduler(passes, 4).getExecutionOrder());
+  }
+
+  @Test
+  void testDependenciesAreRespected() throws Exception {
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .registerPass(new First(executed))
+            .registerPass(new Undeclared(executed))
+            .registerPass(new Last(executed))
+            .registerPass(new Independent(executed))
+            .passWorkers(4)
+            .build();
+
+    TranslationManager.builder().config(config).build().analyze().get();
+
+    assertEquals(4, executed.size());
+    assertEquals(executed.indexOf("Independent") + 1, executed.indexOf("Last"));
+    assertEquals(executed.indexOf("Last") + 1, executed.indexOf("First"));
+  }
+
+  @Test
+  void testFilesAreMappedAfterResolvers() throws Exception {
+    File topLevel = new File("src/test/resources/staticImports/dummies");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(new File(topLevel, "GenerateDummies.java"))
+            .topLevel(topLevel)
+            .defaultPasses()
+            .passWorkers(4)
+            .failOnError(true)
+            .build();
+    List<Pass> order = new PassScheduler(config.getRegisteredPasses(), 4).getExecutionOrder();
+    assertEquals(FilenameMapper.class, order.get(order.size() - 2).getClass());
+
+    TranslationResult result = TranslationManager.builder().config(config).build().analyze().get();
+
+    // the resolvers add a stub of the imported class, which holds the dummy methods
+    assertEquals(2, result.getTranslationUnits().size());
+    for (TranslationUnitDeclaration tu : result.getTranslationUnits()) {
+      List<Node> nodes =
+          tu.getDeclarations().stream()
+              .flatMap(SubgraphWalker::preOrder)
+              .collect(Collectors.toList());
+      assertFalse(nodes.isEmpty());
+      for (Node node : nodes) {
+        assertEquals(tu.getName(), node.getFile());
+      }
+    }
+  }
+
+  @Test
+  void testCyclicDependencies() {
+    List<Pass> passes = List.of(new Cyclic(new ArrayList<>()), new Cyclic(new ArrayList<>()));
+
+    assertThrows(
+        TranslationException.class, () -> new PassScheduler(passes, 1).getExecutionOrder());
+  }
+
+  @Test
+  void testLayersRegisterMinimalPasses() {
+    TranslationConfiguration config =
+        TranslationConfiguration.builder().layers(GraphLayer.CG).build();
+
+    assertEquals(
+        List.of(
+            TypeHierarchyResolver.class,
+            TypePropagationPass.class,
+            ImportResolver.class,
+            VariableUsageResolver.class,
+            CallResolver.class),
+        config.getRegisteredPasses().stream().map(Object::getClass).collect(Collectors.toList()));
+    assertFalse(config.codeInNodes);
+    assertFalse(config.commentsInNodes);
+  }
+
+  @Test
+  void testExplicitCodeInNodesWinsOverLayers() {
+    TranslationConfiguration before =
+        TranslationConfiguration.builder()
+            .codeInNodes(true)
+            .commentsInNodes(true)
+            .layers(GraphLayer.CG)
+            .build();
+    assertTrue(before.codeInNodes);
+    assertTrue(before.commentsInNodes);
+
+    TranslationConfiguration after =
+        TranslationConfiguration.builder().layers(GraphLayer.AST).codeInNodes(false).build();
+    assertFalse(after.codeInNodes);
+    assertTrue(after.commentsInNodes);
+  }
+
+  @Test
+  void testPropagationFollowsTypeHierarchy() {
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .registerPass(new TypeHierarchyResolver())
+            .registerPass(new CallResolver())
+            .build();
+
+    assertEquals(
+        List.of(TypeHierarchyResolver.class, TypePropagationPass.class, CallResolver.class),
+        config.getRegisteredPasses().stream().map(Object::getClass).collect(Collectors.toList()));
+  }
+
+  @Test
+  void testLayersSkipRegisteredPasses() {
+    List<Pass> defaults =
+        TranslationConfiguration.builder().defaultPasses().build().getRegisteredPasses();
+    TranslationConfiguration config =
+        TranslationConfiguration.builder().defaultPasses().layers(GraphLayer.CFG).build();
+
+    List<Class<?>> expected = defaults.stream().map(Object::getClass).collect(Collectors.toList());
+    expected.add(ControlFlowGraphPass.class);
+    assertEquals(
+        expected,
+        config.getRegisteredPasses().stream().map(Object::getClass).collect(Collectors.toList()));
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.frontends.TranslationException;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaLanguageFrontend;
+import de.fraunhofer.aisec.cpg.graph.CompoundStatement;
+import de.fraunhofer.aisec.cpg.graph.DeclaredReferenceExpression;
+import de.fraunhofer.aisec.cpg.graph.FieldDeclaration;
+import de.fraunhofer.aisec.cpg.graph.FunctionDeclaration;
+import de.fraunhofer.aisec.cpg.graph.Node;
+import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.graph.Type;
+import de.fraunhofer.aisec.cpg.graph.ValueDeclaration;
+import de.fraunhofer.aisec.cpg.graph.VariableDeclaration;
+import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker.ScopedWalker;
+import de.fraunhofer.aisec.cpg.passes.scopes.DeclarationScope;
+import de.fraunhofer.aisec.cpg.passes.scopes.ScopeManager;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ScopeLookupTest {
+
+  private static VariableDeclaration variable(String name) {
+    return NodeBuilder.newVariableDeclaration(name, new Type("int"), name);
+  }
+
+  private static DeclaredReferenceExpression reference(String name) {
+    return NodeBuilder.newDeclaredReferenceExpression(name, new Type("int"), name);
+  }
+
+  @Test
+  void testScopedWalkerLookup() throws TranslationException {
+    File file = new File("src/test/resources/scopes/Shadowing.java");
+    TranslationConfiguration config = TranslationConfiguration.builder().build();
+    TranslationUnitDeclaration tu = new JavaLanguageFrontend(config).parse(file);
+
+    ScopedWalker walker = new ScopedWalker();
+    walker.registerHandler(
+        (currClass, currScope, currNode) -> walker.collectDeclarations(tu, currNode));
+    walker.iterate(tu);
+
+    // look up every reference like the variable usage resolver does
+    Map<String, ValueDeclaration> resolved = new HashMap<>();
+    Map<String, Node> scopes = new HashMap<>();
+    walker.clearCallbacks();
+    walker.registerHandler(
+        (currClass, currScope, currNode) -> {
+          if (currNode instanceof DeclaredReferenceExpression) {
+            resolved.put(
+                currNode.getName(), walker.getDeclarationForScope(currScope, currNode.getName()));
+            scopes.put(currNode.getName(), currScope);
+          }
+        });
+    walker.iterate(tu);
+
+    // the local variable shadows the field of the same name
+    assertTrue(resolved.get("x") instanceof VariableDeclaration);
+    // declarations of the enclosing block and of the record are found through the parent scopes
+    assertEquals("outer", resolved.get("outer").getName());
+    assertTrue(resolved.get("outer") instanceof VariableDeclaration);
+    assertTrue(
+        walker.getDeclarationForScope(scopes.get("x"), "field") instanceof FieldDeclaration);
+    assertNull(walker.getDeclarationForScope(scopes.get("x"), "unknown"));
+
+    // the lookup yields the first declaration of all visible declarations with that name
+    ValueDeclaration first =
+        walker.getDeclarationsForScope(scopes.get("x")).stream()
+            .filter(d -> d.getName().equals("x"))
+            .findFirst()
+            .get();
+    assertSame(first, resolved.get("x"));
+  }
+
+  @Test
+  void testScopeManagerResolve() {
+    TranslationConfiguration config = TranslationConfiguration.builder().build();
+    ScopeManager scopeManager = new JavaLanguageFrontend(config).getScopeManager();
+
+    FunctionDeclaration function = NodeBuilder.newFunctionDeclaration("function", "");
+    scopeManager.enterScope(function);
+    VariableDeclaration outerX = variable("x");
+    VariableDeclaration outerY = variable("y");
+    scopeManager.addValueDeclaration(outerX);
+    scopeManager.addValueDeclaration(outerY);
+
+    CompoundStatement block = NodeBuilder.newCompoundStatement("");
+    scopeManager.enterScope(block);
+    VariableDeclaration innerX = variable("x");
+    scopeManager.addValueDeclaration(innerX);
+
+    // the inner declaration shadows the outer one, the others are found in the parent scopes
+    assertSame(innerX, scopeManager.resolve(reference("x")));
+    assertSame(outerY, scopeManager.resolve(reference("y")));
+    assertNull(scopeManager.resolve(reference("z")));
+
+    // renamed declarations are found by their new name
+    innerX.setName("z");
+    assertSame(outerX, scopeManager.resolve(reference("x")));
+    assertSame(innerX, scopeManager.resolve(reference("z")));
+
+    // declarations added to the list directly can be resolved as well
+    VariableDeclaration innerW = variable("w");
+    ((DeclarationScope) scopeManager.getCurrentScope()).getValueDeclarations().add(innerW);
+    assertSame(innerW, scopeManager.resolve(reference("w")));
+
+    scopeManager.leaveScope(block);
+    assertSame(outerX, scopeManager.resolve(reference("x")));
+    assertNull(scopeManager.resolve(reference("w")));
+  }
+}
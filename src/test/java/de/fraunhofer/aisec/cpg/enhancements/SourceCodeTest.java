@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.graph.Literal;
+import de.fraunhofer.aisec.cpg.graph.SourceCode;
+import org.junit.jupiter.api.Test;
+
+class SourceCodeTest {
+
+  @Test
+  void testOffsets() {
+    SourceCode source = new SourceCode("Test.java", "int a;\r\nint b;\rint c;\nint d;");
+
+    assertEquals(0, source.getOffset(1, 1));
+    assertEquals(8, source.getOffset(2, 1));
+    assertEquals(15, source.getOffset(3, 1));
+    assertEquals(26, source.getOffset(4, 5));
+    assertEquals(-1, source.getOffset(5, 1));
+    assertNull(source.getSnippet(20, 40));
+
+    for (int offset = 0; offset <= source.length(); offset++) {
+      assertEquals(
+          offset, source.getOffset(source.getLine(offset), source.getColumn(offset)), "" + offset);
+    }
+    assertEquals(2, source.getLine(13));
+    assertEquals(6, source.getColumn(13));
+  }
+
+  @Test
+  void testLazyCode() {
+    SourceCode source = new SourceCode("Test.java", "int a = 42;");
+    Literal<Integer> literal = new Literal<>();
+    literal.setCode(source.getSnippet(8, 10));
+
+    assertEquals("42", literal.getCode());
+    assertEquals("2", source.getSnippet(8, 10).subSequence(1, 2).toString());
+  }
+
+  @Test
+  void testCodeIsNotCopiedRepeatedly() {
+    SourceCode source = new SourceCode("Test.java", "int a = 42;");
+    Literal<Integer> literal = new Literal<>();
+    literal.setCode(source.getSnippet(8, 10));
+
+    assertSame(literal.getCode(), literal.getCode());
+    assertTrue(literal.getCodeSequence() instanceof SourceCode.Snippet);
+    // the code of a whole file is the content itself
+    assertSame(source.getContent(), source.getSnippet().toString());
+  }
+}
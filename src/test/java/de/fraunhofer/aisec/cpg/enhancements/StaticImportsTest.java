@@ -178,4 +178,28 @@ public class StaticImportsTest {
       }
     }
   }
+
+  @Test
+  void testDummiesInvalidateResolvedCandidates() throws Exception {
+    List<TranslationUnitDeclaration> result = analyze("memo");
+    List<RecordDeclaration> records = Util.subnodesOfType(result, RecordDeclaration.class);
+    List<MethodDeclaration> methods = Util.subnodesOfType(result, MethodDeclaration.class);
+
+    RecordDeclaration a = TestUtils.findByName(records, "A");
+    List<MethodDeclaration> dummies =
+        a.getMethods().stream().filter(MethodDeclaration::isDummy).collect(Collectors.toList());
+    assertEquals(1, dummies.size());
+    MethodDeclaration dummy = dummies.get(0);
+
+    // A resolves its call before B creates the dummy, C afterwards
+    CallExpression first =
+        Util.subnodesOfType(TestUtils.findByName(methods, "first"), CallExpression.class).get(0);
+    assertTrue(first.getInvokes().isEmpty());
+    CallExpression main =
+        Util.subnodesOfType(TestUtils.findByName(methods, "main"), CallExpression.class).get(0);
+    assertEquals(List.of(dummy), main.getInvokes());
+    CallExpression second =
+        Util.subnodesOfType(TestUtils.findByName(methods, "second"), CallExpression.class).get(0);
+    assertEquals(List.of(dummy), second.getInvokes());
+  }
 }
@@ -29,17 +29,29 @@ package de.fraunhofer.aisec.cpg.enhancements;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import de.fraunhofer.aisec.cpg.TranslationConfiguration;
 import de.fraunhofer.aisec.cpg.frontends.TranslationException;
 import de.fraunhofer.aisec.cpg.frontends.java.JavaLanguageFrontend;
+import de.fraunhofer.aisec.cpg.graph.CompoundStatement;
 import de.fraunhofer.aisec.cpg.graph.NamespaceDeclaration;
 import de.fraunhofer.aisec.cpg.graph.Node;
+import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
 import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
+import de.fraunhofer.aisec.cpg.graph.ReturnStatement;
+import de.fraunhofer.aisec.cpg.graph.Statement;
+import de.fraunhofer.aisec.cpg.graph.SubGraph;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.helpers.SubgraphWalker;
 import java.io.File;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
 class SubgraphWalkerTest {
@@ -62,4 +74,85 @@ class SubgraphWalkerTest {
     // should contain 4 AST nodes, 1 field (+1 this field), 1 method, 1 constructor
     assertEquals(4, ast.size());
   }
+
+  @Test
+  void testTraversalOrders() throws TranslationException {
+    File file = new File("src/test/resources/compiling/RecordDeclaration.java");
+    TranslationConfiguration config = TranslationConfiguration.builder().build();
+    TranslationUnitDeclaration declaration = new JavaLanguageFrontend(config).parse(file);
+
+    List<Node> flattened = SubgraphWalker.flattenAST(declaration);
+    List<Node> preOrder = SubgraphWalker.preOrder(declaration).collect(Collectors.toList());
+    List<Node> postOrder = SubgraphWalker.postOrder(declaration).collect(Collectors.toList());
+
+    assertEquals(flattened.size(), preOrder.size());
+    assertEquals(flattened.size(), postOrder.size());
+    assertEquals(new HashSet<>(flattened), new HashSet<>(preOrder));
+    assertEquals(new HashSet<>(flattened), new HashSet<>(postOrder));
+
+    assertSame(declaration, preOrder.get(0));
+    assertSame(declaration, postOrder.get(postOrder.size() - 1));
+  }
+
+  /** A node class that is not known to the walker, with additional AST fields. */
+  static class CustomBlock extends CompoundStatement {
+
+    @SubGraph("AST")
+    private Statement extra;
+
+    @SubGraph("AST")
+    private List<Statement> more;
+
+    @SubGraph("CFG")
+    private Statement notAst;
+  }
+
+  /** Collects the AST children by reading the annotated fields reflectively on every call. */
+  private static Set<Node> reflectiveAstChildren(Node node) throws IllegalAccessException {
+    Set<Node> children = new HashSet<>();
+    for (Class<?> type = node.getClass(); type != null; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        SubGraph subGraph = field.getAnnotation(SubGraph.class);
+        if (subGraph == null || !Arrays.asList(subGraph.value()).contains("AST")) {
+          continue;
+        }
+        field.setAccessible(true);
+        Object value = field.get(node);
+        if (value instanceof Node) {
+          children.add((Node) value);
+        } else if (value instanceof Collection) {
+          for (Object child : (Collection<?>) value) {
+            if (child != null) {
+              children.add((Node) child);
+            }
+          }
+        }
+      }
+    }
+    return children;
+  }
+
+  @Test
+  void testAstChildrenOfSubclass() throws IllegalAccessException {
+    CustomBlock block = new CustomBlock();
+    ReturnStatement inherited = NodeBuilder.newReturnStatement("");
+    block.getStatements().add(inherited);
+
+    // null fields are skipped
+    assertEquals(Set.of(inherited), SubgraphWalker.getAstChildren(block));
+    assertEquals(reflectiveAstChildren(block), SubgraphWalker.getAstChildren(block));
+
+    // null elements of collections are skipped, fields of other subgraphs are ignored
+    block.extra = NodeBuilder.newReturnStatement("");
+    block.more = Arrays.asList(NodeBuilder.newReturnStatement(""), null);
+    block.notAst = NodeBuilder.newReturnStatement("");
+    Set<Node> children = SubgraphWalker.getAstChildren(block);
+    assertEquals(Set.of(inherited, block.extra, block.more.get(0)), children);
+    assertEquals(reflectiveAstChildren(block), children);
+
+    // the accessors of the superclass are not affected by the subclass
+    CompoundStatement plain = NodeBuilder.newCompoundStatement("");
+    plain.getStatements().add(inherited);
+    assertEquals(Set.of(inherited), SubgraphWalker.getAstChildren(plain));
+  }
 }
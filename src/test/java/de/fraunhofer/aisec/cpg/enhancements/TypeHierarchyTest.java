@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
+import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
+import de.fraunhofer.aisec.cpg.graph.Type;
+import de.fraunhofer.aisec.cpg.graph.TypeHierarchy;
+import de.fraunhofer.aisec.cpg.graph.TypeManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class TypeHierarchyTest {
+
+  private static RecordDeclaration record(String name, String... superTypes) {
+    return NodeBuilder.newRecordDeclaration(
+        name,
+        List.of(superTypes).stream().map(Type::new).collect(Collectors.toList()),
+        "class",
+        "");
+  }
+
+  @Test
+  void testCommonSuperRecord() {
+    RecordDeclaration root = record("Root");
+    RecordDeclaration base = record("Base", "Root");
+    RecordDeclaration left = record("Left", "Base");
+    RecordDeclaration right = record("Right", "Base", "Unknown");
+    RecordDeclaration leaf = record("Leaf", "Left");
+    TypeHierarchy hierarchy = new TypeHierarchy(List.of(root, base, left, right, leaf));
+
+    assertEquals(
+        base,
+        hierarchy.getCommonSuperRecord(List.of(new Type("Leaf"), new Type("Right"))).get());
+    assertEquals(
+        left, hierarchy.getCommonSuperRecord(List.of(new Type("Leaf"), new Type("Left"))).get());
+    // types without a record are ignored
+    assertEquals(
+        leaf, hierarchy.getCommonSuperRecord(List.of(new Type("Leaf"), new Type("int"))).get());
+    assertFalse(hierarchy.getCommonSuperRecord(List.of(new Type("int"))).isPresent());
+  }
+
+  @Test
+  void testSuperTypesChanged() {
+    RecordDeclaration base = record("Base");
+    RecordDeclaration sub = record("Sub");
+    RecordDeclaration leaf = record("Leaf", "Sub");
+    TypeHierarchy hierarchy = new TypeHierarchy(List.of(base, sub, leaf));
+    assertFalse(
+        hierarchy.getCommonSuperRecord(List.of(new Type("Base"), new Type("Leaf"))).isPresent());
+
+    // the record and the records inheriting from it are patched without rebuilding the index
+    sub.setSuperTypes(List.of(new Type("Base")));
+    assertEquals(
+        base, hierarchy.getCommonSuperRecord(List.of(new Type("Base"), new Type("Leaf"))).get());
+
+    sub.setSuperTypes(List.of());
+    assertFalse(
+        hierarchy.getCommonSuperRecord(List.of(new Type("Base"), new Type("Leaf"))).isPresent());
+  }
+
+  @Test
+  void testAddRecord() {
+    RecordDeclaration left = record("Left", "Base");
+    RecordDeclaration right = record("Right", "Base");
+    TypeHierarchy hierarchy = new TypeHierarchy(List.of(left, right));
+    assertFalse(
+        hierarchy.getCommonSuperRecord(List.of(new Type("Left"), new Type("Right"))).isPresent());
+
+    // records that already inherited from the name of the added record are linked to it
+    RecordDeclaration base = record("Base");
+    hierarchy.add(base);
+    assertEquals(base, hierarchy.getRecord("Base").get());
+    assertEquals(
+        base, hierarchy.getCommonSuperRecord(List.of(new Type("Left"), new Type("Right"))).get());
+
+    // records with the name of an indexed record are ignored
+    hierarchy.add(record("Base"));
+    assertSame(base, hierarchy.getRecord("Base").get());
+  }
+
+  @Test
+  void testChangesPerTranslation() {
+    TypeManager translation = new TypeManager();
+    TypeManager other = new TypeManager();
+    try {
+      TypeManager.setInstance(translation);
+      RecordDeclaration base = record("Base");
+      RecordDeclaration sub = record("Sub");
+      TypeHierarchy hierarchy = new TypeHierarchy(List.of(base, sub));
+
+      // changes made by another translation do not affect this one
+      TypeManager.setInstance(other);
+      record("Sub").setSuperTypes(List.of(new Type("Base")));
+      TypeManager.setInstance(translation);
+      assertFalse(
+          hierarchy.getCommonSuperRecord(List.of(new Type("Base"), new Type("Sub"))).isPresent());
+
+      sub.setSuperTypes(List.of(new Type("Base")));
+      assertEquals(
+          base, hierarchy.getCommonSuperRecord(List.of(new Type("Base"), new Type("Sub"))).get());
+    } finally {
+      TypeManager.clearInstance();
+    }
+  }
+}
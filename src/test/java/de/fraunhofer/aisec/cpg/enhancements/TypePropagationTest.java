@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.fraunhofer.aisec.cpg.graph.HasType;
+import de.fraunhofer.aisec.cpg.graph.Literal;
+import de.fraunhofer.aisec.cpg.graph.NodeBuilder;
+import de.fraunhofer.aisec.cpg.graph.Type;
+import de.fraunhofer.aisec.cpg.graph.TypePropagation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TypePropagationTest {
+
+  @Test
+  void testNotificationsAreMerged() {
+    Literal<Integer> source = NodeBuilder.newLiteral(1, new Type("A"), "1");
+    Literal<Integer> target = NodeBuilder.newLiteral(2, new Type("B"), "2");
+
+    source.registerTypeListener(
+        new HasType.TypeListener() {
+          @Override
+          public void typeChanged(HasType src, Type oldType) {
+            // two changes of the target while its listeners are still pending
+            target.resetTypes(new Type("C"));
+            target.resetTypes(new Type("D"));
+          }
+
+          @Override
+          public void possibleSubTypesChanged(HasType src, Set<Type> oldSubTypes) {}
+        });
+
+    List<Type> seen = new ArrayList<>();
+    target.registerTypeListener(
+        new HasType.TypeListener() {
+          @Override
+          public void typeChanged(HasType src, Type oldType) {
+            seen.add(oldType);
+          }
+
+          @Override
+          public void possibleSubTypesChanged(HasType src, Set<Type> oldSubTypes) {}
+        });
+    seen.clear();
+    target.resetTypes(new Type("B"));
+    seen.clear();
+
+    long iterations = TypePropagation.getInstance().getIterations();
+    source.resetTypes(new Type("E"));
+
+    // the listener of the target is only notified once, with the type it has seen last
+    assertEquals(List.of(new Type("B")), seen);
+    assertEquals(new Type("D"), target.getType());
+    // source: type and sub types, target: type and sub types
+    assertEquals(4, TypePropagation.getInstance().getIterations() - iterations);
+  }
+}
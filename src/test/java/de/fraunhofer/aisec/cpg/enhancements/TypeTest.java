@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import de.fraunhofer.aisec.cpg.graph.Type;
+import org.junit.jupiter.api.Test;
+
+class TypeTest {
+
+  @Test
+  void testParsing() {
+    Type type = new Type("const {unnamed}::ns::Foo[42] *");
+
+    assertEquals("ns.Foo", type.getTypeName());
+    assertEquals("[]*", type.getTypeAdjustment());
+    assertEquals("const", type.getTypeModifier());
+    // parse results are cached, but each type is still parsed correctly
+    assertEquals(type, new Type("const {unnamed}::ns::Foo[42] *"));
+  }
+
+  @Test
+  void testCopyOnWrite() {
+    Type first = new Type("int");
+    Type second = new Type("int");
+    assertEquals(first, second);
+
+    second.setTypeAdjustment("*");
+    assertEquals("", first.getTypeAdjustment());
+    assertNotEquals(first, second);
+    assertEquals(first.reference(), second);
+    assertEquals(first, second.dereference());
+  }
+
+  @Test
+  void testCachesKeepFrequentlyUsedTypes() {
+    String name = new Type("Frequent").getTypeName();
+    for (int i = 0; i < 200_000; i++) {
+      new Type("Rare" + i);
+      if (i % 1000 == 0) {
+        assertSame(name, new Type("Frequent").getTypeName());
+      }
+    }
+    assertSame(name, new Type("Frequent").getTypeName());
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.enhancements;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.frontends.TranslationException;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaLanguageFrontend;
+import de.fraunhofer.aisec.cpg.frontends.java.JavaTypeSolverCache;
+import de.fraunhofer.aisec.cpg.graph.CallExpression;
+import de.fraunhofer.aisec.cpg.graph.FieldDeclaration;
+import de.fraunhofer.aisec.cpg.graph.FunctionDeclaration;
+import de.fraunhofer.aisec.cpg.graph.ParamVariableDeclaration;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.graph.VariableDeclaration;
+import de.fraunhofer.aisec.cpg.helpers.Util;
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class UnresolvedCacheTest {
+
+  @Test
+  void testUnresolvedTypesAreCached() throws TranslationException {
+    File file = new File("src/test/resources/unresolved/Unresolved.java");
+    JavaLanguageFrontend frontend =
+        new JavaLanguageFrontend(
+            TranslationConfiguration.builder()
+                .sourceFiles(file)
+                .topLevel(file.getParentFile())
+                .build());
+    TranslationUnitDeclaration tu = frontend.parse(file);
+
+    // the first parameter fails to resolve, all further uses of the type are served by the cache
+    assertEquals(1, frontend.getTypeSolvers().getUnresolvedCount());
+    assertTrue(frontend.getTypeSolvers().getCacheHits() >= 2);
+
+    List<ParamVariableDeclaration> params =
+        Util.subnodesOfType(tu, FunctionDeclaration.class).get(0).getParameters();
+    for (ParamVariableDeclaration param : params) {
+      assertEquals("org.example.missing.Logger", param.getType().getTypeName());
+    }
+    frontend.cleanup();
+  }
+
+  @Test
+  void testTypeArgumentsUseTheImportsOfTheirFile() throws TranslationException {
+    File topLevel = new File("src/test/resources/unresolvedimports");
+    File first = new File(topLevel, "First.java");
+    File second = new File(topLevel, "Second.java");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder().sourceFiles(first, second).topLevel(topLevel).build();
+    JavaTypeSolverCache typeSolvers = new JavaTypeSolverCache(config);
+
+    // a.Foo is missing, which must not prevent b.Foo from being resolved in the second file
+    JavaLanguageFrontend firstFrontend = new JavaLanguageFrontend(config, typeSolvers);
+    JavaLanguageFrontend secondFrontend = new JavaLanguageFrontend(config, typeSolvers);
+    TranslationUnitDeclaration firstUnit = firstFrontend.parse(first);
+    TranslationUnitDeclaration secondUnit = secondFrontend.parse(second);
+    firstFrontend.cleanup();
+    secondFrontend.cleanup();
+
+    assertEquals("java.util.List", getField(firstUnit, "foos").getType().getTypeName());
+    assertEquals("java.util.List<b.Foo>", getField(secondUnit, "foos").getType().getTypeName());
+  }
+
+  @Test
+  void testTypesAreGuessedFromMatchingImports() throws TranslationException {
+    File file = new File("src/test/resources/unresolved/Imports.java");
+    JavaLanguageFrontend frontend =
+        new JavaLanguageFrontend(
+            TranslationConfiguration.builder()
+                .sourceFiles(file)
+                .topLevel(file.getParentFile())
+                .build());
+    TranslationUnitDeclaration tu = frontend.parse(file);
+    frontend.cleanup();
+
+    List<ParamVariableDeclaration> params =
+        Util.subnodesOfType(tu, FunctionDeclaration.class).get(0).getParameters();
+    // MyLogger is not imported for Logger, only the exact simple name matches
+    assertEquals("Logger", params.get(0).getType().getTypeName());
+    // static asterisk imports provide their type
+    assertEquals("org.example.missing.Constants", params.get(1).getType().getTypeName());
+    // package asterisk imports are not matched against their last package name
+    assertEquals("other", params.get(2).getType().getTypeName());
+  }
+
+  @Test
+  void testFailuresOfDeclarationsAreNotShared() throws TranslationException {
+    File file = new File("src/test/resources/unresolved/Inferred.java");
+    JavaLanguageFrontend frontend =
+        new JavaLanguageFrontend(
+            TranslationConfiguration.builder()
+                .sourceFiles(file)
+                .topLevel(file.getParentFile())
+                .build());
+    TranslationUnitDeclaration tu = frontend.parse(file);
+    frontend.cleanup();
+
+    // only the first var fails to resolve, the type of the second one is still inferred
+    VariableDeclaration second =
+        Util.subnodesOfType(tu, VariableDeclaration.class).stream()
+            .filter(v -> v.getName().equals("second"))
+            .findFirst()
+            .orElseThrow();
+    assertEquals("java.util.ArrayList<java.lang.String>", second.getType().getTypeName());
+
+    // the same call text in another block refers to a different local
+    List<CallExpression> calls =
+        Util.subnodesOfType(tu, CallExpression.class).stream()
+            .filter(c -> c.getName().equals("size"))
+            .collect(Collectors.toList());
+    assertEquals(2, calls.size());
+    assertEquals("list.size", calls.get(0).getFqn());
+    assertEquals("java.util.ArrayList.size", calls.get(1).getFqn());
+  }
+
+  private FieldDeclaration getField(TranslationUnitDeclaration tu, String name) {
+    return Util.subnodesOfType(tu, FieldDeclaration.class).stream()
+        .filter(f -> f.getName().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+}
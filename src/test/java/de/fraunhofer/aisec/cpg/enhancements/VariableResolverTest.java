@@ -28,6 +28,7 @@ package de.fraunhofer.aisec.cpg.enhancements;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.fraunhofer.aisec.cpg.TestUtils;
 import de.fraunhofer.aisec.cpg.TranslationConfiguration;
@@ -36,6 +37,7 @@ import de.fraunhofer.aisec.cpg.graph.DeclaredReferenceExpression;
 import de.fraunhofer.aisec.cpg.graph.FieldDeclaration;
 import de.fraunhofer.aisec.cpg.graph.MemberExpression;
 import de.fraunhofer.aisec.cpg.graph.MethodDeclaration;
+import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
 import de.fraunhofer.aisec.cpg.graph.ReturnStatement;
 import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
 import de.fraunhofer.aisec.cpg.graph.VariableDeclaration;
@@ -49,7 +51,11 @@ import org.junit.jupiter.api.Test;
 public class VariableResolverTest {
 
   private List<TranslationUnitDeclaration> analyze() throws Exception {
-    Path topLevel = Path.of("src", "test", "resources", "variables");
+    return analyze("variables");
+  }
+
+  private List<TranslationUnitDeclaration> analyze(String path) throws Exception {
+    Path topLevel = Path.of("src", "test", "resources", path);
     File[] files =
         Files.walk(topLevel, Integer.MAX_VALUE)
             .map(Path::toFile)
@@ -110,4 +116,43 @@ public class VariableResolverTest {
     assertNotEquals(field, returnValue.getRefersTo());
     assertEquals(local, returnValue.getRefersTo());
   }
+
+  @Test
+  public void testFieldsOfIndirectSupertypes() throws Exception {
+    List<TranslationUnitDeclaration> result = analyze("inheritedfields");
+    List<MethodDeclaration> methods = Util.subnodesOfType(result, MethodDeclaration.class);
+    List<FieldDeclaration> fields = Util.subnodesOfType(result, FieldDeclaration.class);
+
+    MethodDeclaration getBaseField = TestUtils.findByName(methods, "getBaseField");
+    ReturnStatement returnStatement =
+        Util.subnodesOfType(getBaseField, ReturnStatement.class).get(0);
+    assertEquals(
+        TestUtils.findByName(fields, "baseField"),
+        ((MemberExpression) returnStatement.getReturnValue()).getMember());
+
+    MethodDeclaration getMiddleField = TestUtils.findByName(methods, "getMiddleField");
+    returnStatement = Util.subnodesOfType(getMiddleField, ReturnStatement.class).get(0);
+    assertEquals(
+        TestUtils.findByName(fields, "middleField"),
+        ((MemberExpression) returnStatement.getReturnValue()).getMember());
+  }
+
+  @Test
+  public void testDummiesOfSupertypesAreInherited() throws Exception {
+    List<TranslationUnitDeclaration> result = analyze("inheritedfields");
+    List<MethodDeclaration> methods = Util.subnodesOfType(result, MethodDeclaration.class);
+    List<RecordDeclaration> records = Util.subnodesOfType(result, RecordDeclaration.class);
+
+    // the member table of Leaf already exists when the dummy is added to Base
+    RecordDeclaration base = TestUtils.findByName(records, "Base");
+    FieldDeclaration missing = TestUtils.findByName(base.getFields(), "missing");
+    assertTrue(missing.isDummy());
+    RecordDeclaration leaf = TestUtils.findByName(records, "Leaf");
+    assertTrue(leaf.getFields().stream().noneMatch(f -> f.getName().equals("missing")));
+
+    MethodDeclaration getMissing = TestUtils.findByName(methods, "getMissing");
+    ReturnStatement returnStatement = Util.subnodesOfType(getMissing, ReturnStatement.class).get(0);
+    assertEquals(
+        missing, ((DeclaredReferenceExpression) returnStatement.getReturnValue()).getRefersTo());
+  }
 }
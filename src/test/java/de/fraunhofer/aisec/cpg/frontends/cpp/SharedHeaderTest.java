@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019, Fraunhofer AISEC. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *                    $$$$$$\  $$$$$$$\   $$$$$$\
+ *                   $$  __$$\ $$  __$$\ $$  __$$\
+ *                   $$ /  \__|$$ |  $$ |$$ /  \__|
+ *                   $$ |      $$$$$$$  |$$ |$$$$\
+ *                   $$ |      $$  ____/ $$ |\_$$ |
+ *                   $$ |  $$\ $$ |      $$ |  $$ |
+ *                   \$$$$$   |$$ |      \$$$$$   |
+ *                    \______/ \__|       \______/
+ *
+ */
+package de.fraunhofer.aisec.cpg.frontends.cpp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.aisec.cpg.TranslationConfiguration;
+import de.fraunhofer.aisec.cpg.TranslationManager;
+import de.fraunhofer.aisec.cpg.graph.CallExpression;
+import de.fraunhofer.aisec.cpg.graph.Declaration;
+import de.fraunhofer.aisec.cpg.graph.DeclaredReferenceExpression;
+import de.fraunhofer.aisec.cpg.graph.EnumDeclaration;
+import de.fraunhofer.aisec.cpg.graph.FieldDeclaration;
+import de.fraunhofer.aisec.cpg.graph.FunctionDeclaration;
+import de.fraunhofer.aisec.cpg.graph.RecordDeclaration;
+import de.fraunhofer.aisec.cpg.graph.TranslationUnitDeclaration;
+import de.fraunhofer.aisec.cpg.helpers.Util;
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class SharedHeaderTest {
+
+  private List<TranslationUnitDeclaration> analyze(boolean deduplicate) throws Exception {
+    File topLevel = new File("src/test/resources/sharedheaders");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(new File(topLevel, "a.cpp"), new File(topLevel, "b.cpp"))
+            .topLevel(topLevel)
+            .defaultPasses()
+            .deduplicateIncludes(deduplicate)
+            .failOnError(true)
+            .build();
+    TranslationManager manager = TranslationManager.builder().config(config).build();
+    return manager.analyze().get().getTranslationUnits();
+  }
+
+  /** Analyzes two units that include the same header of records and enums, without passes. */
+  private List<TranslationUnitDeclaration> analyzeMembers(int frontendWorkers) throws Exception {
+    File topLevel = new File("src/test/resources/sharedheaders");
+    TranslationConfiguration config =
+        TranslationConfiguration.builder()
+            .sourceFiles(new File(topLevel, "c.cpp"), new File(topLevel, "d.cpp"))
+            .topLevel(topLevel)
+            .deduplicateIncludes(true)
+            .frontendWorkers(frontendWorkers)
+            .failOnError(true)
+            .build();
+    TranslationManager manager = TranslationManager.builder().config(config).build();
+    return manager.analyze().get().getTranslationUnits();
+  }
+
+  private static DeclaredReferenceExpression getReference(
+      TranslationUnitDeclaration unit, String name) {
+    return Util.subnodesOfType(unit, DeclaredReferenceExpression.class).stream()
+        .filter(r -> r.getName().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static FieldDeclaration getField(RecordDeclaration record, String name) {
+    return record.getFields().stream()
+        .filter(f -> f.getName().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Test
+  void testHeaderDeclarationsAreShared() throws Exception {
+    List<TranslationUnitDeclaration> units = analyze(true);
+
+    // both source files and the header
+    assertEquals(3, units.size());
+    TranslationUnitDeclaration a = units.get(0);
+    TranslationUnitDeclaration b = units.get(1);
+    TranslationUnitDeclaration header = units.get(2);
+    assertTrue(header.getName().endsWith("shared.h"));
+
+    // the header is converted once, both units refer to the same declarations
+    assertEquals(2, header.getDeclarations().size());
+    assertEquals(header.getDeclarations(), a.getSharedDeclarations());
+    for (int i = 0; i < header.getDeclarations().size(); i++) {
+      assertSame(header.getDeclarations().get(i), b.getSharedDeclarations().get(i));
+    }
+    assertEquals(
+        List.of("answer", "first"),
+        a.getDeclarations().stream().map(Declaration::getName).collect(Collectors.toList()));
+
+    // calls still resolve to the shared declarations
+    FunctionDeclaration distance = (FunctionDeclaration) header.getDeclarations().get(1);
+    CallExpression call = Util.subnodesOfType(a, CallExpression.class).get(0);
+    assertEquals(List.of(distance), call.getInvokes());
+  }
+
+  @Test
+  void testMacroExpansionsAreNotShared() throws Exception {
+    List<TranslationUnitDeclaration> units = analyze(true);
+
+    // answer() expands a macro of the header, so every unit has its own declaration
+    TranslationUnitDeclaration b = units.get(1);
+    assertTrue(
+        Util.subnodesOfType(units.get(2), FunctionDeclaration.class).stream()
+            .noneMatch(f -> f.getName().equals("answer")));
+    FunctionDeclaration answer =
+        Util.subnodesOfType(b, FunctionDeclaration.class).stream()
+            .filter(f -> f.getName().equals("answer"))
+            .findFirst()
+            .orElseThrow();
+    assertTrue(b.getDeclarations().contains(answer));
+    assertEquals(List.of(answer), Util.subnodesOfType(b, CallExpression.class).get(0).getInvokes());
+  }
+
+  @Test
+  void testWithoutDeduplication() throws Exception {
+    List<TranslationUnitDeclaration> units = analyze(false);
+
+    assertEquals(2, units.size());
+    assertTrue(units.get(0).getSharedDeclarations().isEmpty());
+    assertEquals(4, units.get(0).getDeclarations().size());
+  }
+
+  @Test
+  void testEnumConstantsAreShared() throws Exception {
+    List<TranslationUnitDeclaration> units = analyzeMembers(1);
+
+    assertEquals(3, units.size());
+    TranslationUnitDeclaration header = units.get(2);
+    assertTrue(header.getName().endsWith("members.h"));
+    EnumDeclaration color = (EnumDeclaration) header.getDeclarations().get(0);
+    assertEquals(
+        List.of("RED", "GREEN"),
+        color.getEntries().stream().map(Declaration::getName).collect(Collectors.toList()));
+
+    // the unit that converted the header as well as the one that reused it refer to the entries
+    assertSame(color.getEntries().get(0), getReference(units.get(0), "RED").getRefersTo());
+    assertSame(color.getEntries().get(1), getReference(units.get(1), "GREEN").getRefersTo());
+  }
+
+  @Test
+  void testFieldsAreShared() throws Exception {
+    List<TranslationUnitDeclaration> units = analyzeMembers(1);
+
+    RecordDeclaration pair = (RecordDeclaration) units.get(2).getDeclarations().get(1);
+    FieldDeclaration first = getField(pair, "first");
+    FieldDeclaration second = getField(pair, "second");
+
+    // Pair::sum is defined by the unit that did not convert the header
+    TranslationUnitDeclaration d = units.get(1);
+    assertSame(pair, d.getSharedDeclarations().get(1));
+    assertSame(first, getReference(d, "first").getRefersTo());
+    assertSame(second, getReference(d, "second").getRefersTo());
+  }
+
+  @Test
+  void testParallelWorkersShareHeaders() throws Exception {
+    for (int run = 0; run < 10; run++) {
+      List<TranslationUnitDeclaration> units = analyzeMembers(2);
+
+      // however the workers interleave, the header is converted exactly once
+      assertEquals(3, units.size());
+      TranslationUnitDeclaration header = units.get(2);
+      assertEquals(2, header.getDeclarations().size());
+      for (TranslationUnitDeclaration unit : units.subList(0, 2)) {
+        assertEquals(header.getDeclarations(), unit.getSharedDeclarations());
+        for (int i = 0; i < header.getDeclarations().size(); i++) {
+          assertSame(header.getDeclarations().get(i), unit.getSharedDeclarations().get(i));
+        }
+      }
+
+      EnumDeclaration color = (EnumDeclaration) header.getDeclarations().get(0);
+      RecordDeclaration pair = (RecordDeclaration) header.getDeclarations().get(1);
+      assertSame(color.getEntries().get(0), getReference(units.get(0), "RED").getRefersTo());
+      assertSame(color.getEntries().get(1), getReference(units.get(1), "GREEN").getRefersTo());
+      assertSame(getField(pair, "first"), getReference(units.get(1), "first").getRefersTo());
+    }
+  }
+}
@@ -0,0 +1,10 @@
+int add(int a, int b);
+static int twice(int a);
+
+int main() {
+  return add(1, 2) + subtract(2, 1) + twice(1) + scale(2);
+}
+
+static int twice(int a) {
+  return 2 * a;
+}
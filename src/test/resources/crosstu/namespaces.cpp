@@ -0,0 +1,13 @@
+namespace util {
+int add(int a, int b) {
+  return a + b;
+}
+}
+
+int add(int a, int b) {
+  return a - b;
+}
+
+int main() {
+  return util::add(1, 2) + add(3, 4);
+}
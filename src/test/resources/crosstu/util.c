@@ -0,0 +1,15 @@
+int add(int a, int b) {
+  return a + b;
+}
+
+int subtract(int a, int b) {
+  return a - b;
+}
+
+static int twice(int a) {
+  return a + a;
+}
+
+static int scale(int a) {
+  return twice(a);
+}
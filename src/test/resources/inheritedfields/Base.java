@@ -0,0 +1,3 @@
+public class Base {
+  int baseField = 1;
+}
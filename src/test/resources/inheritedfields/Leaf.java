@@ -0,0 +1,15 @@
+public class Leaf extends Middle {
+
+  int getBaseField() {
+    return baseField;
+  }
+
+  int getMiddleField() {
+    return middleField;
+  }
+
+  int getMissing(Base base) {
+    int unknown = (base).missing; // adds a dummy to Base
+    return missing;
+  }
+}
@@ -0,0 +1,3 @@
+public class Middle extends Base {
+  int middleField = 2;
+}
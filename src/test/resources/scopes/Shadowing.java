@@ -0,0 +1,14 @@
+public class Shadowing {
+
+  int x;
+
+  int field;
+
+  void shadow() {
+    int x = 1;
+    int outer = 2;
+    {
+      int inner = x + outer;
+    }
+  }
+}
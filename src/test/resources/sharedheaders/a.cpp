@@ -0,0 +1,5 @@
+#include "shared.h"
+
+int first() {
+  return distance(1, 2);
+}
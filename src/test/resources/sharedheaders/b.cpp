@@ -0,0 +1,5 @@
+#include "shared.h"
+
+int second() {
+  return answer();
+}
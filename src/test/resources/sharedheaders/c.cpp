@@ -0,0 +1,5 @@
+#include "members.h"
+
+int c(int value) {
+  return value + RED;
+}
@@ -0,0 +1,9 @@
+#include "members.h"
+
+int Pair::sum() {
+  return first + second;
+}
+
+int d(int value) {
+  return value + GREEN;
+}
@@ -0,0 +1,7 @@
+enum Color { RED, GREEN };
+
+struct Pair {
+  int first;
+  int second;
+  int sum();
+};
@@ -0,0 +1,10 @@
+#define ANSWER 42
+
+struct Point {
+  int x;
+  int y;
+};
+
+int distance(int a, int b);
+
+int answer() { return ANSWER; }
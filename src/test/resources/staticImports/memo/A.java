@@ -0,0 +1,10 @@
+public class A {
+
+  public static void log(int level) {
+
+  }
+
+  public static void first() {
+    log("message"); // no candidates yet
+  }
+}
@@ -0,0 +1,8 @@
+import static A.log;
+
+public class B {
+
+  public static void main(String[] args) {
+    log("message"); // adds a dummy to A
+  }
+}
@@ -0,0 +1,6 @@
+public class C extends A {
+
+  public static void second() {
+    log("message"); // needs to map to the dummy in A
+  }
+}
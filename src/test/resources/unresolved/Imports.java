@@ -0,0 +1,9 @@
+import static org.example.missing.Constants.*;
+
+import org.example.missing.MyLogger;
+import org.example.other.*;
+
+public class Imports {
+
+  void log(Logger logger, Constants constants, other value) {}
+}
@@ -0,0 +1,20 @@
+import java.util.ArrayList;
+import org.example.missing.Logger;
+
+public class Inferred {
+
+  void infer() {
+    var first = Logger.getLogger(); // fails, as Logger is missing
+    var second = new ArrayList<String>();
+  }
+
+  void call(Logger logger, boolean flag) {
+    if (flag) {
+      Logger list = logger;
+      list.size(); // fails, as Logger is missing
+    } else {
+      ArrayList<String> list = new ArrayList<>();
+      list.size();
+    }
+  }
+}
@@ -0,0 +1,8 @@
+import org.example.missing.Logger;
+
+public class Unresolved {
+
+  void log(Logger first, Logger second) {
+    Logger third = first;
+  }
+}
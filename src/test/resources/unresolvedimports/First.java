@@ -0,0 +1,7 @@
+import a.Foo;
+import java.util.List;
+
+public class First {
+
+  List<Foo> foos;
+}
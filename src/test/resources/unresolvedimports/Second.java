@@ -0,0 +1,7 @@
+import b.Foo;
+import java.util.List;
+
+public class Second {
+
+  List<Foo> foos;
+}